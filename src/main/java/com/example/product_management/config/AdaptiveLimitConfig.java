@@ -0,0 +1,52 @@
+package com.example.product_management.config;
+
+import com.example.product_management.limiter.AdaptiveConcurrencyLimit;
+import com.example.product_management.limiter.AdaptiveLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Délestage adaptatif : quand la base ralentit, les requêtes en trop sont refusées à l'entrée
+ * au lieu de s'accumuler dans Tomcat. Placé juste après l'observation HTTP, de sorte que les
+ * refus restent visibles dans {@code http.server.requests}. Désactivable par {@code product.limiter.enabled}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdaptiveLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdaptiveLimitFilter> adaptiveLimitFilter(AdaptiveLimitProperties properties,
+                                                                           ObjectMapper objectMapper,
+                                                                           MeterRegistry meterRegistry) {
+        Map<AdaptiveLimitFilter.Budget, AdaptiveConcurrencyLimit> limits = new EnumMap<>(AdaptiveLimitFilter.Budget.class);
+        limits.put(AdaptiveLimitFilter.Budget.READ, limit(properties, properties.getRead()));
+        limits.put(AdaptiveLimitFilter.Budget.WRITE, limit(properties, properties.getWrite()));
+        limits.put(AdaptiveLimitFilter.Budget.SEARCH, limit(properties, properties.getSearch()));
+        log.info("Adaptive concurrency limiter enabled: read {}, write {}, search {}",
+                properties.getRead(), properties.getWrite(), properties.getSearch());
+
+        AdaptiveLimitFilter filter = new AdaptiveLimitFilter(limits, properties.getSearchPath(),
+                properties.getExcludedPaths(), properties.getRetryAfterSeconds(), objectMapper, meterRegistry,
+                System::nanoTime);
+        FilterRegistrationBean<AdaptiveLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        // Après ServerHttpObservationFilter (HIGHEST_PRECEDENCE + 1), avant les autres filtres de l'API
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimit limit(AdaptiveLimitProperties properties,
+                                                  AdaptiveLimitProperties.Budget budget) {
+        return new AdaptiveConcurrencyLimit(properties.settings(budget), System::nanoTime);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.product_management.config;
+
+import com.example.product_management.limiter.AdaptiveConcurrencyLimit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limiteur de concurrence adaptatif devant l'API produits ({@code product.limiter.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "product.limiter")
+@Data
+public class AdaptiveLimitProperties {
+
+    private boolean enabled = true;
+
+    private Budget read = new Budget(50, 8, 400);
+
+    private Budget write = new Budget(20, 2, 100);
+
+    private Budget search = new Budget(10, 2, 50);
+
+    // Latence moyenne d'une fenêtre au-delà de tolerance x la référence : la limite baisse
+    private double tolerance = 2.0;
+
+    private double backoffRatio = 0.9;
+
+    private long windowMs = 100;
+
+    private int minWindowSamples = 10;
+
+    // Sous ce seuil une fenêtre n'est jamais jugée congestionnée (gigue des réponses en cache)
+    private long minLatencyMs = 5;
+
+    private long retryAfterSeconds = 1;
+
+    private String searchPath = "/api/v1/products/search";
+
+    // Préfixes non limités : téléversements d'import de catalogue
+    private List<String> excludedPaths = new ArrayList<>(List.of("/api/v1/products/imports"));
+
+    public AdaptiveConcurrencyLimit.Settings settings(Budget budget) {
+        return new AdaptiveConcurrencyLimit.Settings(budget.getInitialLimit(), budget.getMinLimit(),
+                budget.getMaxLimit(), tolerance, backoffRatio, windowMs, minWindowSamples, minLatencyMs);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+}
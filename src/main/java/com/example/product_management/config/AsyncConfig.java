@@ -0,0 +1,13 @@
+package com.example.product_management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Active {@code @Async}. L'exécuteur est celui de Spring Boot ({@code applicationTaskExecutor}) :
+ * il passe sur des threads virtuels quand {@code spring.threads.virtual.enabled=true}, comme Tomcat.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,15 @@
+package com.example.product_management.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache local Caffeine (W-TinyLFU, taille bornée) configuré par {@code spring.cache.*}.
+ * Les statistiques sont activées pour que l'actuator publie cache.gets / cache.evictions.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String PRODUCTS_CACHE = "products";
+}
@@ -0,0 +1,47 @@
+package com.example.product_management.config;
+
+import com.example.product_management.datasource.GatedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enveloppe le pool Hikari principal dans un {@link GatedDataSource} dimensionné sur sa taille
+ * ({@code spring.datasource.hikari.maximum-pool-size}). Indispensable avec les threads virtuels ;
+ * activé par {@code product.jdbc-gate.enabled}. Les pools des réplicas, qui ne sont pas des beans,
+ * sont enveloppés par {@link ReplicaRoutingConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.jdbc-gate.enabled", havingValue = "true")
+@Slf4j
+public class ConnectionGateConfig {
+
+    // Taille appliquée par Hikari au démarrage du pool quand maximum-pool-size n'est pas renseigné
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor connectionGatePostProcessor(
+            @Value("${product.jdbc-gate.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Taille lue après le binding de spring.datasource.hikari
+                if (bean instanceof HikariDataSource hikari) {
+                    int poolSize = hikari.getMaximumPoolSize() > 0
+                            ? hikari.getMaximumPoolSize()
+                            : Math.max(HIKARI_DEFAULT_POOL_SIZE, hikari.getMinimumIdle());
+                    log.info("Connection gate enabled on {} with {} permits", beanName, poolSize);
+                    return new GatedDataSource(beanName, hikari, poolSize, acquireTimeoutMs, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
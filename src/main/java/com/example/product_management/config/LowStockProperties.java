@@ -0,0 +1,44 @@
+package com.example.product_management.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Seuils d'alerte de stock faible ({@code product.low-stock.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "product.low-stock")
+@Data
+public class LowStockProperties {
+    
+    // Seuil des catégories sans seuil propre
+    private int defaultThreshold = 10;
+    
+    // Seuils par catégorie (nom exact de la catégorie)
+    private Map<String, Integer> thresholds = new HashMap<>();
+    
+    // Les produits sous cette quantité sont gardés en mémoire : GET /low-stock y répond sans requête
+    private int trackedBelow = 100;
+    
+    // Durée de vie d'un abonnement SSE aux alertes
+    private long subscriptionTimeoutMs = 1_800_000;
+    
+    public int thresholdFor(String category) {
+        return thresholds.getOrDefault(category, defaultThreshold);
+    }
+    
+    /**
+     * Quantité sous laquelle un produit est suivi : au moins le plus grand seuil configuré.
+     */
+    public int effectiveTrackedBelow() {
+        int max = Math.max(trackedBelow, defaultThreshold);
+        for (int threshold : thresholds.values()) {
+            max = Math.max(max, threshold);
+        }
+        return max;
+    }
+}
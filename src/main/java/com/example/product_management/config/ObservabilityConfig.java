@@ -0,0 +1,27 @@
+package com.example.product_management.config;
+
+import com.example.product_management.observability.QueryCountFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Comptage des requêtes SQL par requête HTTP. Les timers des contrôleurs et services viennent
+ * de {@code @Timed} (management.observations.annotations.enabled), les statistiques Hibernate
+ * de {@code hibernate.generate_statistics}.
+ */
+@Configuration
+public class ObservabilityConfig {
+    
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(
+            MeterRegistry meterRegistry,
+            @Value("${product.observability.n-plus-one-threshold:10}") int repeatedStatementThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(meterRegistry, repeatedStatementThreshold));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
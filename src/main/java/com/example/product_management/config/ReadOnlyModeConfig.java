@@ -0,0 +1,24 @@
+package com.example.product_management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instance servie depuis un instantané mappé en mémoire (voir ProductSnapshotStore), sans MySQL :
+ * toutes les lectures du catalogue, sans flux de changements ni alertes. Activé par le profil {@code edge}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.snapshot.serving.enabled", havingValue = "true")
+public class ReadOnlyModeConfig {
+    
+    @Bean
+    public FilterRegistrationBean<ReadOnlyModeFilter> readOnlyModeFilter(ObjectMapper objectMapper) {
+        FilterRegistrationBean<ReadOnlyModeFilter> registration =
+                new FilterRegistrationBean<>(new ReadOnlyModeFilter(objectMapper));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
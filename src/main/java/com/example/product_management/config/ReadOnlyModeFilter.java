@@ -0,0 +1,65 @@
+package com.example.product_management.config;
+
+import com.example.product_management.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mode lecture seule : les écritures sont refusées (405) avant d'atteindre les contrôleurs,
+ * l'instance n'ayant ni base de référence ni moyen de propager une modification. Les lectures que
+ * l'instantané ne peut pas servir (flux de changements, alertes, imports) répondent 404 plutôt
+ * qu'un succès vide.
+ */
+public class ReadOnlyModeFilter extends OncePerRequestFilter {
+    
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    
+    private static final List<String> UNAVAILABLE_PATHS = List.of(
+            "/api/v1/products/changes",
+            "/api/v1/products/low-stock/alerts",
+            "/api/v1/products/imports");
+    
+    private final ObjectMapper objectMapper;
+    
+    public ReadOnlyModeFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!READ_METHODS.contains(request.getMethod())) {
+            response.setHeader(HttpHeaders.ALLOW, String.join(", ", READ_METHODS));
+            reject(response, HttpStatus.METHOD_NOT_ALLOWED,
+                    "This instance serves a read-only catalog snapshot, writes are not accepted");
+            return;
+        }
+        if (isUnavailable(request.getRequestURI().substring(request.getContextPath().length()))) {
+            reject(response, HttpStatus.NOT_FOUND,
+                    "This instance serves a read-only catalog snapshot, this resource is only available on the primary");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private static boolean isUnavailable(String path) {
+        return UNAVAILABLE_PATHS.stream().anyMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.product_management.config;
+
+import com.example.product_management.datasource.GatedDataSource;
+import com.example.product_management.datasource.ReadYourWritesFilter;
+import com.example.product_management.datasource.ReplicaLagMonitor;
+import com.example.product_management.datasource.ReplicaPool;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Lectures sur réplicas. La {@link DataSource} exposée est un {@link LazyConnectionDataSourceProxy} :
+ * la connexion physique n'est ouverte qu'à la première instruction, une fois le drapeau read-only
+ * de la transaction posé. Les transactions {@code @Transactional(readOnly = true)} (et les méthodes
+ * de lecture des repositories) obtiennent alors leur connexion du {@link ReplicaPool}, les autres
+ * de la primaire. Activé par {@code product.datasource.routing.enabled}.
+ * <p>
+ * Les pools des réplicas ne sont pas des beans : avec {@code product.jdbc-gate.enabled}, chacun est
+ * enveloppé ici dans son propre {@link GatedDataSource}, comme la primaire par {@link ConnectionGateConfig}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.datasource.routing", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(@Qualifier("primaryDataSource") DataSource primary,
+                                   ReplicaRoutingProperties properties,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${product.jdbc-gate.enabled:false}") boolean gateEnabled,
+                                   @Value("${product.jdbc-gate.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        List<ReplicaPool.Replica> replicas = properties.getReplicas().stream()
+                .map(replica -> {
+                    HikariDataSource pool = replicaDataSource(replica);
+                    DataSource dataSource = gateEnabled
+                            ? new GatedDataSource(pool.getPoolName(), pool, pool.getMaximumPoolSize(), acquireTimeoutMs, meterRegistry)
+                            : pool;
+                    return new ReplicaPool.Replica(replica.getName(), dataSource);
+                })
+                .toList();
+        if (gateEnabled) {
+            log.info("Connection gate enabled on {} replica pools", replicas.size());
+        }
+        log.info("Routing read-only transactions to {} replicas ({})", replicas.size(), properties.getSelection());
+        return new ReplicaPool(primary, replicas, properties.getSelection(), properties.getMaxLagMs(), meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaPool replicaPool) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaPool);
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               ReplicaPool replicaPool) {
+        return new ReplicaLagMonitor(primary, replicaPool.getReplicas(), System::currentTimeMillis);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getReadYourWritesMs()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+    
+    private static HikariDataSource replicaDataSource(ReplicaRoutingProperties.Replica replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setPoolName("replica-" + replica.getName());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
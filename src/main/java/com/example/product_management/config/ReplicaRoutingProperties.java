@@ -0,0 +1,42 @@
+package com.example.product_management.config;
+
+import com.example.product_management.datasource.ReplicaPool;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routage des transactions en lecture seule vers des réplicas ({@code product.datasource.routing.*}).
+ * La primaire reste celle de {@code spring.datasource}.
+ */
+@Component
+@ConfigurationProperties(prefix = "product.datasource.routing")
+@Data
+public class ReplicaRoutingProperties {
+    
+    private boolean enabled = false;
+    
+    private List<Replica> replicas = new ArrayList<>();
+    
+    private ReplicaPool.Selection selection = ReplicaPool.Selection.ROUND_ROBIN;
+    
+    // Au-delà de ce retard un réplica ne reçoit plus de lectures (résolution : lag-check-interval-ms)
+    private long maxLagMs = 2000;
+    
+    private long lagCheckIntervalMs = 1000;
+    
+    // Durée pendant laquelle un client qui vient d'écrire lit sur la primaire
+    private long readYourWritesMs = 5000;
+    
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
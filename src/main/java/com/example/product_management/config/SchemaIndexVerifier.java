@@ -0,0 +1,86 @@
+package com.example.product_management.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Vérifie au démarrage que les index des chemins d'accès du catalogue existent.
+ * Un index est reconnu par ses colonnes de tête, quel que soit son nom : un index manquant
+ * ferait dégénérer les pages catégorie et stock faible en parcours complet de table.
+ */
+@Component
+@ConditionalOnProperty(name = "product.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaIndexVerifier implements ApplicationRunner {
+    
+    private static final String TABLE = "products";
+    
+    // Nom de l'index dans les migrations -> colonnes de tête attendues
+    static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "idx_products_category_price", List.of("category", "price"),
+            "idx_products_quantity", List.of("quantity"),
+            "idx_products_price", List.of("price"),
+            "idx_products_category_updated_at", List.of("category", "updated_at"),
+            "idx_products_updated_at", List.of("updated_at"));
+    
+    private final DataSource dataSource;
+    
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        List<List<String>> indexes = readIndexColumns();
+        
+        List<String> missing = EXPECTED_INDEXES.entrySet().stream()
+                .filter(expected -> indexes.stream().noneMatch(columns -> startsWith(columns, expected.getValue())))
+                .map(expected -> expected.getKey() + " " + expected.getValue())
+                .sorted()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing indexes on table " + TABLE + ": " + missing
+                    + ". Run the database migrations or set product.schema.verify-indexes=false");
+        }
+        log.info("Verified {} expected indexes on table {}", EXPECTED_INDEXES.size(), TABLE);
+    }
+    
+    private List<List<String>> readIndexColumns() throws SQLException {
+        // Colonnes de chaque index, dans l'ordre de leur position
+        Map<String, TreeMap<Short, String>> columnsByIndex = new TreeMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue;
+                    }
+                    columnsByIndex.computeIfAbsent(indexName, name -> new TreeMap<>())
+                            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        List<List<String>> indexes = new ArrayList<>();
+        columnsByIndex.values().forEach(columns -> indexes.add(new ArrayList<>(columns.values())));
+        return indexes;
+    }
+    
+    private static boolean startsWith(List<String> columns, List<String> prefix) {
+        return columns.size() >= prefix.size() && columns.subList(0, prefix.size()).equals(prefix);
+    }
+}
@@ -1,28 +1,66 @@
 package com.example.product_management.controller;
 
 import com.example.product_management.dto.ApiResponse;
+import com.example.product_management.dto.BulkOperationResponse;
+import com.example.product_management.dto.BulkProductUpdateRequest;
+import com.example.product_management.dto.CatalogVersion;
+import com.example.product_management.dto.CategoryFacet;
+import com.example.product_management.dto.CursorPage;
+import com.example.product_management.dto.ProductFields;
+import com.example.product_management.dto.ProductPatchRequest;
 import com.example.product_management.dto.ProductRequest;
 import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.ProductVersion;
+import com.example.product_management.dto.StockAdjustmentRequest;
+import com.example.product_management.dto.StockDeltaRequest;
+import com.example.product_management.dto.StockReservationRequest;
+import com.example.product_management.dto.StockResponse;
+import com.example.product_management.exception.BadRequestException;
+import com.example.product_management.exception.PreconditionFailedException;
+import com.example.product_management.service.LowStockAlertBroadcaster;
+import com.example.product_management.service.ProductBulkService;
+import com.example.product_management.service.ProductChangeFeed;
+import com.example.product_management.service.ProductExportService;
 import com.example.product_management.service.ProductService;
+import com.example.product_management.service.ProductStockService;
+import com.example.product_management.service.StockWriteBehindService;
+import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
 @Tag(name = "Product Management", description = "APIs for managing products")
+@Timed(value = "product.controller", description = "ProductController operation latency", histogram = true)
 public class ProductController {
     
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductBulkService productBulkService;
+    private final ProductStockService productStockService;
+    private final StockWriteBehindService stockWriteBehindService;
+    private final LowStockAlertBroadcaster lowStockAlertBroadcaster;
+    private final ProductChangeFeed productChangeFeed;
     
     @PostMapping
     @Operation(summary = "Create a new product")
@@ -37,6 +75,30 @@ public class ProductController {
                 .body(ApiResponse.success(product, "Product created successfully"));
     }
     
+    @PostMapping("/bulk")
+    @Operation(summary = "Create products in bulk",
+            description = "Validates each item, checks all names in one query and inserts with JDBC batching. "
+                    + "Returns one result per item.")
+    public ResponseEntity<ApiResponse<BulkOperationResponse>> createProducts(@RequestBody List<ProductRequest> requests) {
+        BulkOperationResponse response = productBulkService.createProducts(requests);
+        return ResponseEntity.ok(ApiResponse.success(response, "Bulk create processed"));
+    }
+    
+    @PutMapping("/bulk")
+    @Operation(summary = "Update products in bulk")
+    public ResponseEntity<ApiResponse<BulkOperationResponse>> updateProducts(
+            @RequestBody List<BulkProductUpdateRequest> requests) {
+        BulkOperationResponse response = productBulkService.updateProducts(requests);
+        return ResponseEntity.ok(ApiResponse.success(response, "Bulk update processed"));
+    }
+    
+    @PostMapping("/bulk/delete")
+    @Operation(summary = "Delete products in bulk")
+    public ResponseEntity<ApiResponse<BulkOperationResponse>> deleteProducts(@RequestBody List<Long> ids) {
+        BulkOperationResponse response = productBulkService.deleteProducts(ids);
+        return ResponseEntity.ok(ApiResponse.success(response, "Bulk delete processed"));
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     @ApiResponses(value = {
@@ -44,31 +106,107 @@ public class ProductController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found")
     })
     public ResponseEntity<ApiResponse<ProductResponse>> getProduct(
-            @Parameter(description = "Product ID") @PathVariable Long id) {
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            WebRequest webRequest) {
+        // 304 sans charger ni sérialiser le produit : seules la version et la date de modification sont lues
+        Optional<ProductVersion> version = productService.getProductVersion(id);
+        if (version.isPresent() && isProductNotModified(webRequest, version.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(productETag(version.get().getVersion()))
+                    .lastModified(toEpochMillis(version.get().getLastModified()))
+                    .build();
+        }
         ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product, "Product retrieved successfully"));
+        // Validateurs tirés du corps renvoyé : le produit a pu changer depuis la lecture de sa version
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (product.getVersion() != null) {
+            response.eTag(productETag(product));
+        }
+        if (product.getUpdatedAt() != null) {
+            response.lastModified(toEpochMillis(product.getUpdatedAt()));
+        }
+        return response.body(ApiResponse.success(product, "Product retrieved successfully"));
     }
     
     @GetMapping
-    @Operation(summary = "Get all products")
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
+    @Operation(summary = "Get products page",
+            description = "Keyset pagination: pass the returned nextCursor to fetch the following page. "
+                    + "With a category, products are ordered by price then id.")
+    public ResponseEntity<ApiResponse<CursorPage<ProductResponse>>> getProducts(
+            @Parameter(description = "Opaque cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)", example = "20") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "Optional category filter") @RequestParam(required = false) String category,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name,price") @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        ProductFields selectedFields = ProductFields.parse(fields);
+        if (isCollectionNotModified(webRequest, productService.getCatalogVersion(category))) {
+            return null;
+        }
+        CursorPage<ProductResponse> page = productService.getProductsPage(cursor, size, category, selectedFields);
+        return ResponseEntity.ok(ApiResponse.success(page, "Products retrieved successfully"));
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export the whole catalog as NDJSON",
+            description = "Streams one product per line; memory use does not depend on catalog size")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = out -> productExportService.exportAsNdjson(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to the product change feed",
+            description = "Server-Sent Events stream of creates, updates and deletes in commit order. "
+                    + "Each event id is a monotonic sequence number; reconnect with Last-Event-ID "
+                    + "(or since) to resume without gaps, since=0 replays the retained history")
+    public SseEmitter subscribeToChanges(
+            @Parameter(description = "Resume after this sequence number") @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return productChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
     }
     
     @PutMapping("/{id}")
-    @Operation(summary = "Update product")
+    @Operation(summary = "Update product",
+            description = "Replaces every field. Send the ETag of the product in If-Match to reject the update "
+                    + "if someone else modified it since it was read.")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Product updated"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Product name already exists")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Product name already exists"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Product modified concurrently")
     })
     public ResponseEntity<ApiResponse<ProductResponse>> updateProduct(
             @Parameter(description = "Product ID") @PathVariable Long id,
+            @Parameter(description = "ETag returned by a previous read, e.g. W/\"3\"") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductRequest request) {
-        ProductResponse product = productService.updateProduct(id, request);
-        return ResponseEntity.ok(ApiResponse.success(product, "Product updated successfully"));
+        ProductResponse product = productService.updateProduct(id, request, expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(productETag(product))
+                .body(ApiResponse.success(product, "Product updated successfully"));
+    }
+    
+    @PatchMapping("/{id}")
+    @Operation(summary = "Partially update product",
+            description = "Only the fields present in the body are modified, and only the changed columns are written. "
+                    + "Send the ETag of the product in If-Match to reject the update if someone else modified it.")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Product updated"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Product name already exists"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Product modified concurrently")
+    })
+    public ResponseEntity<ApiResponse<ProductResponse>> patchProduct(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Parameter(description = "ETag returned by a previous read, e.g. W/\"3\"") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ProductPatchRequest patch) {
+        ProductResponse product = productService.patchProduct(id, patch, expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(productETag(product))
+                .body(ApiResponse.success(product, "Product updated successfully"));
     }
     
     @DeleteMapping("/{id}")
@@ -83,14 +221,98 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
     
+    @PostMapping("/{id}/stock/increment")
+    @Operation(summary = "Atomically increase product stock")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Stock increased"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Quantity would exceed 10,000")
+    })
+    public ResponseEntity<ApiResponse<StockResponse>> increaseStock(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentRequest request) {
+        StockResponse stock = productStockService.increaseStock(id, request.getAmount());
+        return ResponseEntity.ok(ApiResponse.success(stock, "Stock increased successfully"));
+    }
+    
+    @PostMapping("/{id}/stock/decrement")
+    @Operation(summary = "Atomically decrease product stock")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Stock decreased"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Insufficient stock")
+    })
+    public ResponseEntity<ApiResponse<StockResponse>> decreaseStock(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentRequest request) {
+        StockResponse stock = productStockService.decreaseStock(id, request.getAmount());
+        return ResponseEntity.ok(ApiResponse.success(stock, "Stock decreased successfully"));
+    }
+    
+    @PostMapping("/{id}/stock/deltas")
+    @Operation(summary = "Buffer a stock change for a hot product",
+            description = "The change is journaled locally and written to the database with the next batched flush. "
+                    + "Stock bounds are not checked: the change is always accepted, and the resulting quantity "
+                    + "is clamped to 0..10,000 at flush time, discarding the excess (counted in "
+                    + "product.stock.write_behind.clamped). Use /stock/increment or /stock/decrement to have "
+                    + "out-of-bounds changes rejected.")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Stock change accepted"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    public ResponseEntity<ApiResponse<Void>> bufferStockDelta(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Valid @RequestBody StockDeltaRequest request) {
+        stockWriteBehindService.recordDelta(id, request.getDelta());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(null, "Stock change accepted"));
+    }
+    
+    @PostMapping("/stock/reservations")
+    @Operation(summary = "Reserve stock for several products, all or nothing")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Stock reserved"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Insufficient stock, nothing reserved")
+    })
+    public ResponseEntity<ApiResponse<List<StockResponse>>> reserveStock(@Valid @RequestBody StockReservationRequest request) {
+        List<StockResponse> stock = productStockService.reserveStock(request.getItems());
+        return ResponseEntity.ok(ApiResponse.success(stock, "Stock reserved successfully"));
+    }
+    
     @GetMapping("/category/{category}")
     @Operation(summary = "Get products by category")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getProductsByCategory(
-            @Parameter(description = "Product category") @PathVariable String category) {
-        List<ProductResponse> products = productService.getProductsByCategory(category);
+            @Parameter(description = "Product category") @PathVariable String category,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name,price") @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        ProductFields selectedFields = ProductFields.parse(fields);
+        if (isCollectionNotModified(webRequest, productService.getCatalogVersion(category))) {
+            return null;
+        }
+        List<ProductResponse> products = productService.getProductsByCategory(category, selectedFields);
         return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
     }
     
+    @GetMapping("/price-range")
+    @Operation(summary = "Get products by price range",
+            description = "Products whose price is between minPrice and maxPrice (inclusive)")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getProductsByPriceRange(
+            @Parameter(description = "Minimum price", example = "10.00") @RequestParam BigDecimal minPrice,
+            @Parameter(description = "Maximum price", example = "100.00") @RequestParam BigDecimal maxPrice) {
+        List<ProductResponse> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+        return ResponseEntity.ok(ApiResponse.success(products, "Products retrieved successfully"));
+    }
+    
+    @GetMapping("/facets")
+    @Operation(summary = "Get category facets",
+            description = "Per-category product count, min/max/average price and total quantity, "
+                    + "served from precomputed rollups")
+    public ResponseEntity<ApiResponse<List<CategoryFacet>>> getCategoryFacets() {
+        List<CategoryFacet> facets = productService.getCategoryFacets();
+        return ResponseEntity.ok(ApiResponse.success(facets, "Category facets retrieved successfully"));
+    }
+    
     @GetMapping("/low-stock")
     @Operation(summary = "Get low stock products")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getLowStockProducts(
@@ -100,11 +322,97 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(products, "Low stock products retrieved successfully"));
     }
     
+    @GetMapping(value = "/low-stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to low stock alerts",
+            description = "Server-Sent Events stream: an event is pushed when a product falls below "
+                    + "its category threshold (LOW) or goes back above it (CLEARED)")
+    public SseEmitter subscribeToLowStockAlerts() {
+        return lowStockAlertBroadcaster.subscribe();
+    }
+    
     @GetMapping("/search")
     @Operation(summary = "Search products by keyword")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> searchProducts(
-            @Parameter(description = "Search keyword") @RequestParam String keyword) {
-        List<ProductResponse> products = productService.searchProducts(keyword);
+            @Parameter(description = "Search keyword") @RequestParam String keyword,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name,price") @RequestParam(required = false) String fields) {
+        List<ProductResponse> products = productService.searchProducts(keyword, ProductFields.parse(fields));
         return ResponseEntity.ok(ApiResponse.success(products, "Search results retrieved successfully"));
     }
+    
+    /**
+     * Même décision que {@link WebRequest#checkNotModified}, sans poser d'en-tête : ceux d'une
+     * réponse 200 viennent du produit chargé ensuite, dont la version a pu avancer entre-temps.
+     */
+    private static boolean isProductNotModified(WebRequest webRequest, ProductVersion version) {
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Comparaison faible : "3" et W/"3" désignent la même version
+            String current = String.valueOf(version.getVersion());
+            return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.tag().equals(current));
+        }
+        String ifModifiedSince = webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null || version.getLastModified() == null) {
+            return false;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+        long since = headers.getIfModifiedSince();
+        // Dates HTTP à la seconde
+        return since >= 0 && toEpochMillis(version.getLastModified()) / 1000 <= since / 1000;
+    }
+    
+    private static String productETag(ProductResponse product) {
+        return productETag(product.getVersion());
+    }
+    
+    private static String productETag(Long version) {
+        return "W/\"" + version + "\"";
+    }
+    
+    /**
+     * Version attendue d'après If-Match, null si l'en-tête est absent ou vaut *. L'ETag d'un produit
+     * étant faible, la comparaison l'est aussi : "3" et W/"3" désignent la même version.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new BadRequestException("If-Match must contain a single entity tag");
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new BadRequestException("If-Match must be an entity tag such as W/\"3\"");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            // ETag d'un autre format (antérieur aux versions) : ne correspond à aucune version
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current product version");
+        }
+    }
+    
+    /**
+     * Vérifie If-None-Match et pose l'ETag (faible : la même version peut être servie sous
+     * plusieurs formats). Pas de Last-Modified : une suppression, ou un produit qui quitte la
+     * catégorie, ne fait pas avancer MAX(updated_at) et un If-Modified-Since renverrait un 304
+     * sur une liste périmée.
+     */
+    private static boolean isCollectionNotModified(WebRequest webRequest, Optional<CatalogVersion> version) {
+        if (version.isEmpty()) {
+            return false;
+        }
+        CatalogVersion current = version.get();
+        String tag = current.getSequence() != null
+                ? "s" + current.getSequence()
+                : "c" + current.getCount() + "-" + toEpochMillis(current.getLastModified());
+        return webRequest.checkNotModified("W/\"" + tag + "\"");
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.product_management.controller;
+
+import com.example.product_management.dto.ApiResponse;
+import com.example.product_management.dto.ImportJobStatus;
+import com.example.product_management.dto.ProductImportFormat;
+import com.example.product_management.service.ProductImportService;
+import io.micrometer.core.annotation.Timed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/products/imports")
+@RequiredArgsConstructor
+@Tag(name = "Product Import", description = "Asynchronous catalog file imports")
+@Timed(value = "product.controller", description = "ProductController operation latency", histogram = true)
+public class ProductImportController {
+    
+    private final ProductImportService productImportService;
+    
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Start a product import job",
+            description = "Uploads a CSV (header: name,description,price,quantity,category), NDJSON or JSON array "
+                    + "file. The file is imported in the background; poll the returned job for progress and errors.")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> startImport(
+            @Parameter(description = "Catalog file") @RequestParam("file") MultipartFile file,
+            @Parameter(description = "CSV, NDJSON or JSON; inferred from the file extension when omitted")
+            @RequestParam(required = false) String format) {
+        ImportJobStatus status = productImportService.submit(file, format == null ? null : ProductImportFormat.parse(format));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/products/imports/" + status.getJobId()))
+                .body(ApiResponse.success(status, "Import job accepted"));
+    }
+    
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get import job progress", description = "Rows read, imported and rejected, throughput and per-row errors")
+    public ResponseEntity<ApiResponse<ImportJobStatus>> getImport(@PathVariable String jobId) {
+        ImportJobStatus status = productImportService.getJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success(status, "Import job retrieved successfully"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.product_management.datasource;
+
+import com.example.product_management.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Borne le nombre de connexions empruntées au pool, au moment même où elles sont demandées.
+ * <p>
+ * Avec les threads virtuels, le nombre de requêtes simultanées n'est plus limité par le pool
+ * Tomcat : des milliers de threads attendraient une connexion Hikari et expireraient dans le pool.
+ * Ici chaque connexion tient un permis jusqu'à sa fermeture ; il y a autant de permis que de
+ * connexions dans le pool, donc un thread qui a obtenu un permis obtient aussi sa connexion. Les
+ * autres attendent dans une file équitable et reçoivent un 503 au-delà du délai d'attente.
+ * Les jauges portent le nom du pool ({@code pool}) : la primaire et chaque réplica ont leur porte.
+ */
+public class GatedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public GatedDataSource(String poolName, DataSource target, int maxConnections, long acquireTimeoutMs,
+                           MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Gauge.builder("product.jdbc_gate.available", permits, Semaphore::availablePermits)
+                .description("Free connection permits")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        Gauge.builder("product.jdbc_gate.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a connection permit")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    // Fermeture du pool enveloppé à l'arrêt du contexte
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new ServiceOverloadedException("Database is busy, please retry", 1);
+        }
+    }
+
+    // Le permis est rendu au premier close() de la connexion, une seule fois
+    private Connection gated(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "getTargetConnection" -> target;
+                    case "close" -> {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    }
+                });
+    }
+}
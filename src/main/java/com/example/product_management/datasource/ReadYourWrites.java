@@ -0,0 +1,46 @@
+package com.example.product_management.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Épinglage du thread courant sur la base primaire : les transactions en lecture seule ne sont
+ * plus envoyées aux réplicas, qui pourraient ne pas encore contenir une écriture récente.
+ */
+public final class ReadYourWrites {
+    
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    
+    private ReadYourWrites() {
+    }
+    
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+    
+    /**
+     * Épingle le thread courant ; renvoie l'état précédent, à passer à {@link #restore(boolean)}.
+     */
+    public static boolean pin() {
+        boolean wasPinned = isPinned();
+        PINNED.set(Boolean.TRUE);
+        return wasPinned;
+    }
+    
+    public static void restore(boolean wasPinned) {
+        if (!wasPinned) {
+            PINNED.remove();
+        }
+    }
+    
+    /**
+     * Exécute {@code action} avec toutes les lectures dirigées vers la primaire.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean wasPinned = pin();
+        try {
+            return action.get();
+        } finally {
+            restore(wasPinned);
+        }
+    }
+}
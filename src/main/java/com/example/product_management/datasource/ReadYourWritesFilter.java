@@ -0,0 +1,74 @@
+package com.example.product_management.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Lecture de ses propres écritures : une requête de modification pose un cookie qui épingle
+ * les requêtes suivantes du même client sur la primaire pendant {@code windowMs}, le temps que
+ * les réplicas rattrapent l'écriture. La requête de modification elle-même est épinglée.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    public static final String COOKIE_NAME = "primary-until";
+    
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    
+    private final long windowMs;
+    
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean mutation = !SAFE_METHODS.contains(request.getMethod());
+        if (mutation) {
+            // Posé avant la réponse : le corps peut être envoyé avant la fin de la chaîne
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + windowMs));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMs + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        
+        if (!mutation && !pinnedByCookie(request, now)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean wasPinned = ReadYourWrites.pin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.restore(wasPinned);
+        }
+    }
+    
+    private boolean pinnedByCookie(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    // Une échéance plus lointaine que la fenêtre n'a pas été posée par ce filtre
+                    return until > now && until <= now + windowMs;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.product_management.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Mesure du retard des réplicas par battement de cœur : à chaque passage, l'horodatage écrit
+ * sur la primaire au passage précédent est comparé à celui que chaque réplica a reçu, puis un
+ * nouvel horodatage est écrit. Le retard a donc pour résolution l'intervalle de mesure. Les
+ * horodatages viennent tous de l'horloge de l'application : pas de dépendance à l'horloge des bases.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    
+    static final String READ_HEARTBEAT = "SELECT beat_millis FROM replication_heartbeat WHERE id = 1";
+    static final String WRITE_HEARTBEAT = "UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1";
+    
+    private final DataSource primary;
+    private final List<ReplicaPool.Replica> replicas;
+    private final LongSupplier clock;
+    private long lastBeat;
+    
+    public ReplicaLagMonitor(DataSource primary, List<ReplicaPool.Replica> replicas, LongSupplier clock) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.clock = clock;
+    }
+    
+    @Scheduled(fixedDelayString = "${product.datasource.routing.lag-check-interval-ms:1000}")
+    public synchronized void check() {
+        if (lastBeat > 0) {
+            replicas.forEach(this::measure);
+        }
+        
+        long beat = clock.getAsLong();
+        try (Connection connection = primary.getConnection();
+             PreparedStatement statement = connection.prepareStatement(WRITE_HEARTBEAT)) {
+            statement.setLong(1, beat);
+            if (statement.executeUpdate() == 0) {
+                log.warn("replication_heartbeat row is missing on the primary, replica lag cannot be measured");
+                return;
+            }
+            lastBeat = beat;
+        } catch (SQLException ex) {
+            log.warn("Cannot write replication heartbeat on the primary: {}", ex.getMessage());
+        }
+    }
+    
+    private void measure(ReplicaPool.Replica replica) {
+        try (Connection connection = replica.dataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(READ_HEARTBEAT);
+             ResultSet result = statement.executeQuery()) {
+            if (!result.next()) {
+                replica.markDown();
+                return;
+            }
+            long lag = lastBeat - result.getLong(1);
+            if (lag > 0) {
+                log.debug("Replica {} is {} ms behind", replica.name(), lag);
+            }
+            replica.updateLag(lag);
+        } catch (SQLException ex) {
+            log.warn("Cannot read replication heartbeat on replica {}: {}", replica.name(), ex.getMessage());
+            replica.markDown();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.product_management.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source des connexions en lecture seule : choisit un réplica à chaque connexion, en tourniquet
+ * ou selon le moins de connexions actives. Un réplica n'est éligible que si son retard mesuré
+ * par {@link ReplicaLagMonitor} reste sous {@code maxLagMs}. Sans réplica éligible, ou si le
+ * thread est épinglé ({@link ReadYourWrites}), la connexion vient de la primaire.
+ */
+@Slf4j
+public class ReplicaPool extends AbstractDataSource implements AutoCloseable {
+    
+    public enum Selection {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    
+    public ReplicaPool(DataSource primary, List<Replica> replicas, Selection selection, long maxLagMs,
+                       MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.maxLagMs = maxLagMs;
+        
+        primaryReads = Counter.builder("product.datasource.reads")
+                .description("Read-only connections served by the primary or a replica")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            replica.reads = Counter.builder("product.datasource.reads")
+                    .description("Read-only connections served by the primary or a replica")
+                    .tag("target", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("product.datasource.replica.lag", replica, Replica::lagMs)
+                    .description("Replication lag measured through the heartbeat table, -1 while unknown or unreachable")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+    
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = select();
+        if (replica == null) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.dataSource().getConnection();
+            replica.reads.increment();
+            return connection;
+        } catch (SQLException ex) {
+            // Écarté jusqu'à la prochaine mesure réussie ; la lecture est servie par la primaire
+            log.warn("Replica {} unreachable, reading from primary: {}", replica.name(), ex.getMessage());
+            replica.markDown();
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+    
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Cannot close replica {}", replica.name(), ex);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Réplica qui servira la prochaine lecture, ou null pour la primaire.
+     */
+    Replica select() {
+        if (ReadYourWrites.isPinned()) {
+            return null;
+        }
+        List<Replica> eligible = replicas.stream().filter(replica -> replica.isEligible(maxLagMs)).toList();
+        if (eligible.isEmpty()) {
+            return null;
+        }
+        return switch (selection) {
+            case ROUND_ROBIN -> eligible.get(Math.floorMod(next.getAndIncrement(), eligible.size()));
+            case LEAST_CONNECTIONS -> eligible.stream()
+                    .min(Comparator.comparingInt(Replica::activeConnections))
+                    .orElseThrow();
+        };
+    }
+    
+    public static class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        // -1 : pas encore mesuré ou injoignable, le réplica n'est pas éligible
+        private volatile long lagMs = -1;
+        private Counter reads;
+        
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        public String name() {
+            return name;
+        }
+        
+        public DataSource dataSource() {
+            return dataSource;
+        }
+        
+        public long lagMs() {
+            return lagMs;
+        }
+        
+        void updateLag(long lagMs) {
+            this.lagMs = Math.max(0, lagMs);
+        }
+        
+        void markDown() {
+            this.lagMs = -1;
+        }
+        
+        boolean isEligible(long maxLagMs) {
+            long lag = lagMs;
+            return lag >= 0 && lag <= maxLagMs;
+        }
+        
+        // Le pool Hikari peut être enveloppé dans un GatedDataSource
+        int activeConnections() {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                    return pool != null ? pool.getActiveConnections() : 0;
+                }
+            } catch (SQLException ex) {
+                log.debug("Cannot read active connections of replica {}", name, ex);
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkItemResult {
+    private int index;
+    private Long id;
+    private boolean success;
+    private String error;
+
+    public static BulkItemResult success(int index, Long id) {
+        return new BulkItemResult(index, id, true, null);
+    }
+
+    public static BulkItemResult failure(int index, Long id, String error) {
+        return new BulkItemResult(index, id, false, error);
+    }
+}
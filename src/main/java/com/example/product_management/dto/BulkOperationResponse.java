@@ -0,0 +1,26 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOperationResponse {
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private List<BulkItemResult> results;
+
+    public static BulkOperationResponse of(BulkItemResult[] results) {
+        int succeeded = (int) Arrays.stream(results).filter(BulkItemResult::isSuccess).count();
+        return BulkOperationResponse.builder()
+                .requested(results.length)
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+}
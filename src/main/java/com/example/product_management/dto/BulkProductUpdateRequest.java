@@ -0,0 +1,19 @@
+package com.example.product_management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkProductUpdateRequest {
+    
+    @NotNull(message = "Id is mandatory")
+    private Long id;
+    
+    @NotNull(message = "Product is mandatory")
+    @Valid
+    private ProductRequest product;
+}
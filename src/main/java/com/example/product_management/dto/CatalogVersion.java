@@ -0,0 +1,29 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version agrégée d'une collection de produits : elle change à chaque création, modification
+ * ou suppression dans la collection. Sert d'ETag sans charger les produits.
+ * <p>
+ * Catalogue entier : dernière séquence du flux des changements ({@code sequence}). Catégorie :
+ * nombre de produits et dernière modification.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+    private Long count;
+    private LocalDateTime lastModified;
+    private Long sequence;
+    
+    public CatalogVersion(Long count, LocalDateTime lastModified) {
+        this(count, lastModified, null);
+    }
+    
+    public static CatalogVersion ofSequence(long sequence) {
+        return new CatalogVersion(null, null, sequence);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryFacet {
+    private String category;
+    private Long productCount;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    // Arrondi à 2 décimales
+    private BigDecimal avgPrice;
+    private Long totalQuantity;
+}
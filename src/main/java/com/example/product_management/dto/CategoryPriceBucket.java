@@ -0,0 +1,19 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Produits d'une catégorie partageant le même prix : nombre et stock cumulé.
+ * Résultat du GROUP BY (catégorie, prix) qui sert au recalcul complet des facettes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryPriceBucket {
+    private String category;
+    private BigDecimal price;
+    private Long count;
+    private Long totalQuantity;
+}
@@ -0,0 +1,34 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobStatus {
+    
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private String jobId;
+    private String fileName;
+    private ProductImportFormat format;
+    private State state;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    // Lignes traitées (importées ou rejetées) par seconde depuis le démarrage
+    private double rowsPerSecond;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String failureReason;
+    // Premières erreurs par ligne ; errorsTruncated indique qu'il y en a d'autres (voir rowsRejected)
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,13 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+    // Ligne du fichier (1 = première ligne, en-tête CSV compris)
+    private long line;
+    private String name;
+    private String error;
+}
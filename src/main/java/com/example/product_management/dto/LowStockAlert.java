@@ -0,0 +1,27 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockAlert {
+    
+    public enum Type {
+        // Le stock vient de passer sous le seuil de sa catégorie
+        LOW,
+        // Le stock est revenu au niveau du seuil (ou le produit a été supprimé)
+        CLEARED
+    }
+    
+    private Type type;
+    private Long productId;
+    private String name;
+    private String category;
+    private Integer quantity;
+    private Integer threshold;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,20 @@
+package com.example.product_management.dto;
+
+import com.example.product_management.event.ProductChangedEvent;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChangeMessage {
+    // Numéro croissant et sans trou : sert d'id d'événement SSE et de point de reprise
+    private Long sequence;
+    private ProductChangedEvent.ChangeType type;
+    private Long productId;
+    // État après l'écriture, ou dernier état connu pour une suppression
+    private ProductResponse product;
+    private LocalDateTime occurredAt;
+}
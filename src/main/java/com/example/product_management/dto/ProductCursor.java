@@ -0,0 +1,44 @@
+package com.example.product_management.dto;
+
+import com.example.product_management.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position opaque d'une page keyset : le dernier id lu et, pour le parcours
+ * par catégorie, le dernier prix lu (ordre {@code (category, price, id)}).
+ */
+public record ProductCursor(BigDecimal price, Long id) {
+
+    public static ProductCursor of(Long id) {
+        return new ProductCursor(null, id);
+    }
+
+    public static ProductCursor of(BigDecimal price, Long id) {
+        return new ProductCursor(price, id);
+    }
+
+    public String encode() {
+        String raw = price == null ? "i:" + id : "p:" + price.toPlainString() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length == 2 && "i".equals(parts[0])) {
+                return of(Long.valueOf(parts[1]));
+            }
+            if (parts.length == 3 && "p".equals(parts[0])) {
+                return of(new BigDecimal(parts[1]), Long.valueOf(parts[2]));
+            }
+        } catch (IllegalArgumentException ex) {
+            // Curseur mal formé : traité ci-dessous
+        }
+        throw new BadRequestException("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.product_management.dto;
+
+import com.example.product_management.exception.BadRequestException;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Champs demandés par le paramètre {@code fields=} (liste séparée par des virgules).
+ * L'id est toujours inclus ; les noms sont ceux de {@link ProductResponse}.
+ */
+public record ProductFields(Set<String> names) {
+    
+    public static final List<String> ALLOWED = List.of(
+            "id", "name", "description", "price", "quantity", "category", "createdAt", "updatedAt", "version");
+    
+    /**
+     * @return null si le paramètre est absent ou vide (tous les champs)
+     */
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALLOWED.contains(name)) {
+                throw new BadRequestException("Unknown field '" + name + "', allowed fields are " + ALLOWED);
+            }
+            names.add(name);
+        }
+        return new ProductFields(Collections.unmodifiableSet(names));
+    }
+    
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+    
+    /**
+     * Champs demandés plus ceux dont la requête a besoin (clés de tri du curseur par exemple).
+     */
+    public Set<String> with(String... required) {
+        Set<String> selected = new LinkedHashSet<>(names);
+        Collections.addAll(selected, required);
+        return selected;
+    }
+}
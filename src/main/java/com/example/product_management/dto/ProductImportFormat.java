@@ -0,0 +1,42 @@
+package com.example.product_management.dto;
+
+import com.example.product_management.exception.BadRequestException;
+
+import java.util.Locale;
+
+public enum ProductImportFormat {
+    // En-tête obligatoire : name,description,price,quantity,category (ordre libre)
+    CSV,
+    // Un objet ProductRequest par ligne
+    NDJSON,
+    // Tableau JSON d'objets ProductRequest
+    JSON;
+    
+    public static ProductImportFormat parse(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown import format '" + format + "', expected CSV, NDJSON or JSON");
+        }
+    }
+    
+    /**
+     * Format déduit de l'extension du fichier, ou null si elle n'est pas reconnue.
+     */
+    public static ProductImportFormat fromFileName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".json")) {
+            return JSON;
+        }
+        return null;
+    }
+}
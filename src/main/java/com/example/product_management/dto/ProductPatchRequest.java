@@ -0,0 +1,35 @@
+package com.example.product_management.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * Modification partielle (PATCH) : seuls les champs renseignés sont modifiés, un champ absent
+ * ou null garde sa valeur. Mêmes contraintes que {@link ProductRequest} pour les champs présents.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPatchRequest {
+    
+    @Size(min = 3, max = 100, message = "Name must be between 3 and 100 characters")
+    @Pattern(regexp = ".*\\S.*", message = "Name cannot be blank")
+    private String name;
+    
+    @Size(min = 10, max = 500, message = "Description must be between 10 and 500 characters")
+    @Pattern(regexp = ".*\\S.*", message = "Description cannot be blank")
+    private String description;
+    
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    @DecimalMax(value = "1000000.00", message = "Price must be less than 1,000,000")
+    private BigDecimal price;
+    
+    @Min(value = 0, message = "Quantity cannot be negative")
+    @Max(value = 10000, message = "Quantity cannot exceed 10,000")
+    private Integer quantity;
+    
+    @Pattern(regexp = ".*\\S.*", message = "Category cannot be blank")
+    private String category;
+}
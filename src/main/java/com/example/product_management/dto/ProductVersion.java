@@ -0,0 +1,17 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version d'un produit (verrou optimiste) et date de dernière modification : ETag, Last-Modified
+ * et If-Match sans charger le produit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductVersion {
+    private Long version;
+    private LocalDateTime lastModified;
+}
@@ -0,0 +1,16 @@
+package com.example.product_management.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustmentRequest {
+    
+    @NotNull(message = "Amount is mandatory")
+    @Min(value = 1, message = "Amount must be at least 1")
+    @Max(value = 10000, message = "Amount cannot exceed 10,000")
+    private Integer amount;
+}
@@ -0,0 +1,16 @@
+package com.example.product_management.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockDeltaRequest {
+    
+    @NotNull(message = "Delta is mandatory")
+    @Min(value = -10000, message = "Delta cannot be below -10,000")
+    @Max(value = 10000, message = "Delta cannot exceed 10,000")
+    private Integer delta;
+}
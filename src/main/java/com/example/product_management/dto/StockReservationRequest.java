@@ -0,0 +1,16 @@
+package com.example.product_management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequest {
+    
+    @NotEmpty(message = "At least one item is required")
+    private List<@Valid StockReservationItem> items;
+}
@@ -0,0 +1,12 @@
+package com.example.product_management.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockResponse {
+    private Long productId;
+    private Integer quantity;
+}
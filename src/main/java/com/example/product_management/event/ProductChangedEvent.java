@@ -0,0 +1,26 @@
+package com.example.product_management.event;
+
+import com.example.product_management.dto.ProductResponse;
+
+/**
+ * Publié par ProductService à chaque écriture. {@code before} est null pour une création,
+ * {@code after} est null pour une suppression.
+ */
+public record ProductChangedEvent(ChangeType type, Long productId, ProductResponse before, ProductResponse after) {
+    
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+    
+    public static ProductChangedEvent created(ProductResponse after) {
+        return new ProductChangedEvent(ChangeType.CREATED, after.getId(), null, after);
+    }
+    
+    public static ProductChangedEvent updated(ProductResponse before, ProductResponse after) {
+        return new ProductChangedEvent(ChangeType.UPDATED, after.getId(), before, after);
+    }
+    
+    public static ProductChangedEvent deleted(ProductResponse before) {
+        return new ProductChangedEvent(ChangeType.DELETED, before.getId(), before, null);
+    }
+}
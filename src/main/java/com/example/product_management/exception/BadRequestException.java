@@ -0,0 +1,7 @@
+package com.example.product_management.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
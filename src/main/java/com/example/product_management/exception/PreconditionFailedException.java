@@ -0,0 +1,7 @@
+package com.example.product_management.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
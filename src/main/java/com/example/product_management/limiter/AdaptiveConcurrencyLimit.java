@@ -0,0 +1,143 @@
+package com.example.product_management.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requêtes simultanées ajustée en AIMD d'après la latence observée.
+ * <p>
+ * Les latences sont agrégées par fenêtre (au moins {@code windowMs} et {@code minWindowSamples}
+ * réponses). À la fin de chaque fenêtre, la latence moyenne est comparée à une latence de
+ * référence (moyenne mobile des fenêtres précédentes) :
+ * <ul>
+ *   <li>au-delà de {@code tolerance} fois la référence, ou si une réponse signale une surcharge
+ *       (503, 504 : pool de connexions saturé, délai dépassé), la limite est multipliée par
+ *       {@code backoffRatio} ;</li>
+ *   <li>sinon, si la fenêtre a utilisé au moins la moitié de la limite, elle augmente de 1.</li>
+ * </ul>
+ * Une erreur applicative (500, 4xx) ne dit rien de la charge et ne fait pas baisser la limite.
+ * Les fenêtres congestionnées ne font presque pas bouger la référence : une file d'attente qui se
+ * forme n'est pas prise pour la nouvelle normale, une base durablement plus lente finit par l'être.
+ * L'admission ({@link #tryAcquire()}) ne bloque jamais : au-delà de la limite la requête est refusée.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final double CONGESTED_BASELINE_WEIGHT = 0.005;
+
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final long windowNanos;
+    private final long minLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Fenêtre courante et référence, protégées par le verrou de l'instance
+    private long windowStart;
+    private int windowSamples;
+    private long windowLatencySum;
+    private boolean windowOverloaded;
+    private double baselineNanos;
+
+    public AdaptiveConcurrencyLimit(Settings settings, LongSupplier nanoClock) {
+        if (settings.minLimit() < 1 || settings.minLimit() > settings.maxLimit()) {
+            throw new IllegalArgumentException("Invalid limit bounds: " + settings.minLimit() + ".." + settings.maxLimit());
+        }
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(settings.windowMs());
+        this.minLatencyNanos = TimeUnit.MILLISECONDS.toNanos(settings.minLatencyMs());
+        this.limit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Réserve une place si le nombre de requêtes en cours est sous la limite.
+     * Toute réservation réussie doit être suivie de {@link #release} ou {@link #releaseWithoutSample}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libère la place et prend en compte la latence de la requête ({@code overloaded} : réponse
+     * signalant une surcharge, voir {@link AdaptiveLimitFilter}).
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        inFlight.decrementAndGet();
+        onSample(latencyNanos, overloaded);
+    }
+
+    /**
+     * Libère la place sans mesure : requête passée en asynchrone (SSE, export) dont la durée
+     * ne dit rien de la charge.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean overloaded) {
+        windowSamples++;
+        windowLatencySum += latencyNanos;
+        windowOverloaded |= overloaded;
+
+        long now = nanoClock.getAsLong();
+        if (now - windowStart < windowNanos || windowSamples < settings.minWindowSamples()) {
+            return;
+        }
+
+        double windowLatency = (double) windowLatencySum / windowSamples;
+        if (baselineNanos == 0) {
+            baselineNanos = windowLatency;
+        }
+        boolean congested = windowLatency > minLatencyNanos && windowLatency > baselineNanos * settings.tolerance();
+        double current = limit;
+        if (congested || windowOverloaded) {
+            limit = Math.max(settings.minLimit(), current * settings.backoffRatio());
+        } else if (windowMaxInFlight.get() * 2 >= (int) current) {
+            limit = Math.min(settings.maxLimit(), current + 1);
+        }
+        double weight = congested ? CONGESTED_BASELINE_WEIGHT : BASELINE_WEIGHT;
+        baselineNanos += weight * (windowLatency - baselineNanos);
+
+        windowStart = now;
+        windowSamples = 0;
+        windowLatencySum = 0;
+        windowOverloaded = false;
+        windowMaxInFlight.set(inFlight.get());
+    }
+
+    /**
+     * @param initialLimit     limite au démarrage
+     * @param minLimit         plancher atteint par les baisses successives
+     * @param maxLimit         plafond atteint par les hausses successives
+     * @param tolerance        rapport latence de la fenêtre / référence au-delà duquel la limite baisse
+     * @param backoffRatio     facteur appliqué à la limite en cas de congestion
+     * @param windowMs         durée minimale d'une fenêtre
+     * @param minWindowSamples nombre minimal de réponses dans une fenêtre
+     * @param minLatencyMs     latence moyenne en dessous de laquelle une fenêtre n'est jamais congestionnée
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio,
+                           long windowMs, int minWindowSamples, long minLatencyMs) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.product_management.limiter;
+
+import com.example.product_management.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Délestage devant l'API produits : chaque requête est rangée dans un budget (lecture, écriture,
+ * recherche) doté de sa propre {@link AdaptiveConcurrencyLimit}. Au-delà de la limite, la réponse
+ * est immédiate : 503 avec {@code Retry-After}, sans attendre un thread Tomcat ni une connexion.
+ * <p>
+ * Métriques par budget (tag {@code budget}) : {@code product.limiter.limit},
+ * {@code product.limiter.in_flight} et {@code product.limiter.rejected}.
+ */
+public class AdaptiveLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    public enum Budget {
+        READ, WRITE, SEARCH;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Budget, AdaptiveConcurrencyLimit> limits;
+    private final Map<Budget, Counter> rejected = new EnumMap<>(Budget.class);
+    private final String searchPath;
+    private final List<String> excludedPaths;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoClock;
+
+    public AdaptiveLimitFilter(Map<Budget, AdaptiveConcurrencyLimit> limits, String searchPath,
+                               List<String> excludedPaths, long retryAfterSeconds, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.limits = new EnumMap<>(limits);
+        this.searchPath = searchPath;
+        this.excludedPaths = List.copyOf(excludedPaths);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+
+        this.limits.forEach((budget, limit) -> {
+            Gauge.builder("product.limiter.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("budget", budget.tag())
+                    .register(meterRegistry);
+            Gauge.builder("product.limiter.in_flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests currently admitted by the limiter")
+                    .tag("budget", budget.tag())
+                    .register(meterRegistry);
+            rejected.put(budget, Counter.builder("product.limiter.rejected")
+                    .description("Requests shed because the concurrency limit was reached")
+                    .tag("budget", budget.tag())
+                    .register(meterRegistry));
+        });
+    }
+
+    // Téléversements d'import : la réception du fichier dure des minutes et fausserait les latences
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return excludedPaths.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Budget budget = budget(request);
+        AdaptiveConcurrencyLimit limit = limits.get(budget);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            reject(budget, response);
+            return;
+        }
+
+        long start = nanoClock.getAsLong();
+        boolean overloaded = false;
+        try {
+            filterChain.doFilter(request, response);
+            overloaded = isOverload(response.getStatus());
+        } finally {
+            if (request.isAsyncStarted()) {
+                limit.releaseWithoutSample();
+            } else {
+                limit.release(nanoClock.getAsLong() - start, overloaded);
+            }
+        }
+    }
+
+    // Surcharge en aval : connexion refusée ou délai dépassé (voir GlobalExceptionHandler). Un 500
+    // ou une exception non traitée est un défaut applicatif et ne fait pas baisser la limite.
+    private static boolean isOverload(int status) {
+        return status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    private Budget budget(HttpServletRequest request) {
+        if (!READ_METHODS.contains(request.getMethod())) {
+            return Budget.WRITE;
+        }
+        return path(request).equals(searchPath) ? Budget.SEARCH : Budget.READ;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(Budget budget, HttpServletResponse response) throws IOException {
+        rejected.get(budget).increment();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many concurrent " + budget.tag() + " requests, please retry"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.product_management.mapper;
+
+import com.example.product_management.dto.ProductPatchRequest;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.model.Product;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Conversions Product <-> DTO écrites à la main : pas de réflexion ni d'objet intermédiaire,
+ * seule la cible est allouée.
+ */
+@Component
+public class ProductMapper {
+    
+    public Product toEntity(ProductRequest request) {
+        Product product = new Product();
+        updateEntity(request, product);
+        return product;
+    }
+    
+    public void updateEntity(ProductRequest request, Product product) {
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        product.setPrice(request.getPrice());
+        product.setQuantity(request.getQuantity());
+        product.setCategory(request.getCategory());
+    }
+    
+    /**
+     * Applique les seuls champs renseignés du PATCH ; les autres gardent leur valeur.
+     */
+    public void patchEntity(ProductPatchRequest patch, Product product) {
+        if (patch.getName() != null) {
+            product.setName(patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            product.setDescription(patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            product.setPrice(patch.getPrice());
+        }
+        if (patch.getQuantity() != null) {
+            product.setQuantity(patch.getQuantity());
+        }
+        if (patch.getCategory() != null) {
+            product.setCategory(patch.getCategory());
+        }
+    }
+    
+    public ProductResponse toResponse(Product product) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getQuantity(),
+                product.getCategory(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                product.getVersion());
+    }
+    
+    /**
+     * Réponse partielle à partir d'une projection : seuls les champs présents dans le tuple sont renseignés.
+     */
+    public ProductResponse toResponse(Tuple tuple) {
+        ProductResponse response = new ProductResponse();
+        for (TupleElement<?> element : tuple.getElements()) {
+            Object value = tuple.get(element);
+            switch (element.getAlias()) {
+                case "id" -> response.setId((Long) value);
+                case "name" -> response.setName((String) value);
+                case "description" -> response.setDescription((String) value);
+                case "price" -> response.setPrice((BigDecimal) value);
+                case "quantity" -> response.setQuantity((Integer) value);
+                case "category" -> response.setCategory((String) value);
+                case "createdAt" -> response.setCreatedAt((LocalDateTime) value);
+                case "updatedAt" -> response.setUpdatedAt((LocalDateTime) value);
+                case "version" -> response.setVersion((Long) value);
+                default -> throw new IllegalArgumentException("Unknown product field " + element.getAlias());
+            }
+        }
+        return response;
+    }
+}
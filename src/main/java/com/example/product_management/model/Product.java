@@ -3,19 +3,33 @@ package com.example.product_management.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// Index créés par les migrations Flyway (V2, V4) ; déclarés ici pour ddl-auto en test
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_price", columnList = "category, price"),
+        @Index(name = "idx_products_quantity", columnList = "quantity"),
+        @Index(name = "idx_products_price", columnList = "price"),
+        @Index(name = "idx_products_category_updated_at", columnList = "category, updated_at"),
+        @Index(name = "idx_products_updated_at", columnList = "updated_at")
+})
+// UPDATE limité aux colonnes modifiées : moins d'octets écrits (binlog, index) sur les lignes chaudes
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Product {
     
+    public static final int MAX_QUANTITY = 10000;
+    
+    // Séquence (table product_seq sous MySQL) allouée par blocs : permet le batch JDBC des INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Name is mandatory")
@@ -36,7 +50,7 @@ public class Product {
     
     @NotNull(message = "Quantity is mandatory")
     @Min(value = 0, message = "Quantity cannot be negative")
-    @Max(value = 10000, message = "Quantity cannot exceed 10,000")
+    @Max(value = MAX_QUANTITY, message = "Quantity cannot exceed 10,000")
     @Column(nullable = false)
     private Integer quantity;
     
@@ -50,6 +64,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Verrou optimiste : chaque UPDATE vérifie et incrémente la version (ETag et If-Match côté API)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,52 @@
+package com.example.product_management.model;
+
+import com.example.product_management.event.ProductChangedEvent;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne de la table outbox du flux de changements. Elle est écrite dans la transaction de
+ * l'écriture produit ; le numéro de séquence du flux lui est attribué ensuite par le relais et
+ * reste null jusque-là. La version du produit, prise sous le verrou de ligne de l'écriture,
+ * donne l'ordre de validation des changements d'un même produit.
+ */
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "uk_product_changes_sequence", columnList = "feed_sequence", unique = true),
+        @Index(name = "idx_product_changes_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_seq")
+    @SequenceGenerator(name = "product_change_seq", sequenceName = "product_change_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "feed_sequence")
+    private Long sequence;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ProductChangedEvent.ChangeType changeType;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    // Null pour les lignes écrites avant l'ajout de la colonne
+    @Column(name = "product_version")
+    private Long productVersion;
+    
+    // ProductResponse en JSON : état après l'écriture, ou avant pour une suppression
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package com.example.product_management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Ligne unique qui sert de verrou au relais du flux de changements et porte la dernière séquence
+ * attribuée. Verrouillée en début de transaction de numérotation : avec plusieurs instances, un
+ * seul relais numérote à la fois et chacun repart de la séquence validée par le précédent. La
+ * séquence survit à la purge des anciennes lignes de l'outbox.
+ */
+@Entity
+@Table(name = "product_change_relay")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeRelay {
+    
+    public static final int ID = 1;
+    
+    @Id
+    private Integer id;
+    
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
@@ -0,0 +1,24 @@
+package com.example.product_management.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Dernier segment du journal des stocks différés dont les deltas sont validés en base, par
+ * journal local (une instance = un répertoire de journal). Mis à jour dans la transaction qui
+ * applique les deltas : au redémarrage, les segments jusqu'à ce numéro ne sont pas rejoués.
+ */
+@Entity
+@Table(name = "stock_journal_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockJournalWatermark {
+    
+    @Id
+    @Column(name = "journal_id", length = 36)
+    private String journalId;
+    
+    @Column(name = "flushed_segment", nullable = false)
+    private Long flushedSegment;
+}
@@ -0,0 +1,67 @@
+package com.example.product_management.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Nombre de requêtes SQL par requête HTTP, publié en histogramme {@code product.http.queries}
+ * (tags method, uri). Une même instruction répétée au-delà du seuil est signalée comme N+1
+ * probable : journal WARN et compteur {@code product.http.n_plus_one}.
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry meterRegistry;
+    private final int repeatedStatementThreshold;
+    
+    public QueryCountFilter(MeterRegistry meterRegistry, int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCountInspector.QueryStats stats = QueryCountInspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCountInspector.stop();
+            record(request, stats);
+        }
+    }
+    
+    private void record(HttpServletRequest request, QueryCountInspector.QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        
+        DistributionSummary.builder("product.http.queries")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.total());
+        
+        if (stats.mostRepeatedCount() >= repeatedStatementThreshold) {
+            log.warn("Possible N+1 on {} {}: statement executed {} times ({} statements in total): {}",
+                    request.getMethod(), uri, stats.mostRepeatedCount(), stats.total(), stats.mostRepeatedSql());
+            Counter.builder("product.http.n_plus_one")
+                    .description("HTTP requests that repeated the same SQL statement above the threshold")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
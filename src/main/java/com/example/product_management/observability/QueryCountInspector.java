@@ -0,0 +1,65 @@
+package com.example.product_management.observability;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compte les requêtes SQL émises par Hibernate pour la requête HTTP en cours (voir
+ * {@link QueryCountFilter}). Enregistré par {@code hibernate.session_factory.statement_inspector} :
+ * Hibernate l'instancie lui-même, l'état est donc porté par le thread.
+ */
+public class QueryCountInspector implements StatementInspector {
+    
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    
+    static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    static void stop() {
+        CURRENT.remove();
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql);
+        }
+        return sql;
+    }
+    
+    static final class QueryStats {
+        
+        private final Map<String, Integer> countsBySql = new HashMap<>();
+        private int total;
+        private String mostRepeatedSql;
+        private int mostRepeatedCount;
+        
+        void record(String sql) {
+            total++;
+            int count = countsBySql.merge(sql, 1, Integer::sum);
+            if (count > mostRepeatedCount) {
+                mostRepeatedCount = count;
+                mostRepeatedSql = sql;
+            }
+        }
+        
+        int total() {
+            return total;
+        }
+        
+        // Même instruction répétée dans une requête HTTP : symptôme typique d'un N+1
+        int mostRepeatedCount() {
+            return mostRepeatedCount;
+        }
+        
+        String mostRepeatedSql() {
+            return mostRepeatedSql;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.product_management.repository;
+
+import com.example.product_management.model.ProductChangeRelay;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductChangeRelayRepository extends JpaRepository<ProductChangeRelay, Integer> {
+    
+    // SELECT ... FOR UPDATE : les relais des autres instances attendent la fin de la transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ProductChangeRelay r WHERE r.id = :id")
+    Optional<ProductChangeRelay> findByIdForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,35 @@
+package com.example.product_management.repository;
+
+import com.example.product_management.model.ProductChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+    
+    // Changements validés pas encore numérotés par le relais, dans l'ordre d'écriture
+    List<ProductChange> findBySequenceIsNullOrderByIdAsc(Pageable pageable);
+    
+    // Tous les changements non numérotés de ces produits, pour les ordonner par version
+    List<ProductChange> findBySequenceIsNullAndProductIdIn(Collection<Long> productIds);
+    
+    // Relecture du flux après une séquence donnée
+    List<ProductChange> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Pageable pageable);
+    
+    @Query("SELECT MAX(c.sequence) FROM ProductChange c")
+    Optional<Long> findMaxSequence();
+    
+    // Purge des changements déjà numérotés au-delà de la rétention
+    @Modifying
+    @Query("DELETE FROM ProductChange c WHERE c.createdAt < :before AND c.sequence IS NOT NULL")
+    int deleteSequencedBefore(@Param("before") LocalDateTime before);
+}
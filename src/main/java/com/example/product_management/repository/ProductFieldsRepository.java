@@ -0,0 +1,22 @@
+package com.example.product_management.repository;
+
+import com.example.product_management.model.Product;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Projections dynamiques : seules les colonnes demandées sont lues, sans entité gérée.
+ */
+public interface ProductFieldsRepository {
+    
+    /**
+     * Chaque {@link Tuple} porte les champs demandés, avec le nom de l'attribut comme alias.
+     *
+     * @param limit nombre maximal de lignes, 0 pour ne pas limiter
+     */
+    List<Tuple> findFields(Collection<String> fields, Specification<Product> where, Sort sort, int limit);
+}
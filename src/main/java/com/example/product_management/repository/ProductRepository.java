@@ -1,27 +1,123 @@
 package com.example.product_management.repository;
 
+import com.example.product_management.dto.CatalogVersion;
+import com.example.product_management.dto.CategoryPriceBucket;
+import com.example.product_management.dto.ProductVersion;
 import com.example.product_management.model.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFieldsRepository, ProductStreamRepository {
     
     // Trouver un produit par son nom (unique)
     Optional<Product> findByName(String name);
     
+    // Noms déjà pris parmi une liste (une seule requête IN pour les imports en masse)
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+    
+    // Produits portant l'un des noms donnés
+    List<Product> findByNameIn(Collection<String> names);
+    
     // Trouver tous les produits d'une catégorie
     List<Product> findByCategory(String category);
     
+    // Version et date de modification seules, pour les requêtes conditionnelles (pas de chargement d'entité)
+    @Query("SELECT new com.example.product_management.dto.ProductVersion(p.version, p.updatedAt) "
+            + "FROM Product p WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+    
+    // Version d'une catégorie : lue sur l'index (category, updated_at) sans accès aux lignes
+    @Query("SELECT new com.example.product_management.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt)) "
+            + "FROM Product p WHERE p.category = :category")
+    CatalogVersion findCategoryVersion(@Param("category") String category);
+    
+    // Version du catalogue entier
+    @Query("SELECT new com.example.product_management.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt)) FROM Product p")
+    CatalogVersion findCatalogVersion();
+    
+    // Agrégat par (catégorie, prix) : recalcul complet des facettes, une ligne par prix distinct
+    @Query("SELECT new com.example.product_management.dto.CategoryPriceBucket(p.category, p.price, COUNT(p), SUM(p.quantity)) "
+            + "FROM Product p GROUP BY p.category, p.price")
+    List<CategoryPriceBucket> findCategoryPriceBuckets();
+
+    // État de chaque produit dans les facettes (id, catégorie, prix, quantité, version) : chargement des agrégats
+    @Query("SELECT p.id, p.category, p.price, p.quantity, p.version FROM Product p")
+    List<Object[]> findFacetStates();
+
+    // Pagination keyset : première page, ordre (id)
+    List<Product> findAllByOrderByIdAsc(Pageable pageable);
+
+    // Pagination keyset : page suivante après le dernier id lu
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Product> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Parcours complet par pages keyset (reconstruction des index en mémoire)
+    default void forEachPage(int pageSize, Consumer<List<Product>> consumer) {
+        Pageable limit = Pageable.ofSize(pageSize);
+        List<Product> page = findAllByOrderByIdAsc(limit);
+        while (!page.isEmpty()) {
+            consumer.accept(page);
+            if (page.size() < pageSize) {
+                return;
+            }
+            page = findPageAfter(page.get(page.size() - 1).getId(), limit);
+        }
+    }
+    
+    // Pagination keyset par catégorie : première page, ordre (price, id)
+    List<Product> findByCategoryOrderByPriceAscIdAsc(String category, Pageable pageable);
+
+    // Pagination keyset par catégorie : page suivante après le dernier (price, id) lu
+    @Query("SELECT p FROM Product p WHERE p.category = :category " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findCategoryPageAfter(@Param("category") String category,
+                                        @Param("afterPrice") BigDecimal afterPrice,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+    
     // Trouver les produits dans une fourchette de prix
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
+    // Triplets (id, prix, version) triés par (prix, id) : chargement de l'index des prix en mémoire
+    @Query("SELECT p.id, p.price, p.version FROM Product p ORDER BY p.price ASC, p.id ASC")
+    List<Object[]> findAllPricesOrderByPrice();
+    
+    // Quantité seule, sans charger l'entité
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+    
+    // Variation de stock atomique : un seul UPDATE conditionnel, aucune lecture préalable.
+    // Renvoie 0 si le produit n'existe pas ou si le résultat sortirait de [0, maxQuantity].
+    // La version est incrémentée comme pour une écriture par entité (If-Match des clients).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :delta, p.updatedAt = :now, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.quantity + :delta >= 0 AND p.quantity + :delta <= :maxQuantity")
+    int adjustQuantity(@Param("id") Long id,
+                       @Param("delta") int delta,
+                       @Param("maxQuantity") int maxQuantity,
+                       @Param("now") LocalDateTime now);
+    
+    // Lecture avec verrou d'écriture, dans l'ordre des ids (flush des stocks différés)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id ASC")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
     // Trouver les produits en faible stock
     @Query("SELECT p FROM Product p WHERE p.quantity < :threshold")
     List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
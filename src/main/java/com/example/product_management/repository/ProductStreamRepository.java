@@ -0,0 +1,17 @@
+package com.example.product_management.repository;
+
+import com.example.product_management.model.Product;
+
+import java.util.stream.Stream;
+
+/**
+ * Parcours complet de la table en flux, pour les exports (NDJSON, instantané binaire).
+ */
+public interface ProductStreamRepository {
+    
+    /**
+     * Tous les produits par id croissant, en entités lecture seule lues par un curseur
+     * forward-only. À consommer dans une transaction et à fermer après usage.
+     */
+    Stream<Product> streamAll();
+}
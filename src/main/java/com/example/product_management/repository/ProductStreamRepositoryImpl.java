@@ -0,0 +1,29 @@
+package com.example.product_management.repository;
+
+import com.example.product_management.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.stream.Stream;
+
+class ProductStreamRepositoryImpl implements ProductStreamRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Lignes lues par aller-retour ; Integer.MIN_VALUE active le streaming ligne à ligne de
+    // MySQL Connector/J, valeur que les autres pilotes (H2 notamment) refusent
+    @Value("${product.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    @Override
+    public Stream<Product> streamAll() {
+        return entityManager.createQuery("SELECT p FROM Product p ORDER BY p.id ASC", Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+}
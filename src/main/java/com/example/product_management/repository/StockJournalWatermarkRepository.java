@@ -0,0 +1,9 @@
+package com.example.product_management.repository;
+
+import com.example.product_management.model.StockJournalWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockJournalWatermarkRepository extends JpaRepository<StockJournalWatermark, String> {
+}
@@ -0,0 +1,238 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.CategoryFacet;
+import com.example.product_management.dto.CategoryPriceBucket;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facettes par catégorie (nombre de produits, prix min/max/moyen, stock total) tenues en mémoire.
+ * <p>
+ * Chaque catégorie garde ses compteurs et un multi-ensemble des prix (prix -> nombre de produits),
+ * ce qui permet de retirer un produit sans perdre le min ou le max. Une écriture coûte O(log p)
+ * pour p prix distincts dans la catégorie et la facette est recalculée aussitôt : la lecture ne
+ * dépend que du nombre de catégories, pas de la taille du catalogue.
+ * <p>
+ * L'état de chaque produit tel qu'il figure dans les agrégats (catégorie, prix, quantité, version)
+ * est conservé : un événement retire toujours ce qui a réellement été compté, et un événement
+ * d'une version antérieure ou égale (reçu dans le désordre après un commit plus récent) est
+ * ignoré. Les ids supprimés sont retenus pendant un horizon borné ({@link RecentProductVersions})
+ * pour écarter un événement tardif. L'état est chargé au démarrage puis tenu à jour à partir des {@link ProductChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryFacetRollups {
+    
+    private final ProductRepository productRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Rollup> byCategory = new TreeMap<>();
+    private Map<Long, Counted> byProduct = new HashMap<>();
+    private final RecentProductVersions deleted = new RecentProductVersions();
+    private List<ProductChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Facettes de toutes les catégories, par nom de catégorie.
+     */
+    public List<CategoryFacet> facets() {
+        lock.readLock().lock();
+        try {
+            return byCategory.values().stream().map(rollup -> rollup.facet).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Calcule les facettes directement depuis l'agrégat SQL, sans l'état en mémoire.
+     */
+    public static List<CategoryFacet> aggregate(List<CategoryPriceBucket> buckets) {
+        Map<String, Rollup> rollups = new TreeMap<>();
+        for (CategoryPriceBucket bucket : buckets) {
+            long totalQuantity = bucket.getTotalQuantity() == null ? 0 : bucket.getTotalQuantity();
+            rollups.computeIfAbsent(bucket.getCategory(), Rollup::new)
+                    .add(bucket.getPrice(), totalQuantity, bucket.getCount());
+        }
+        return rollups.values().stream().map(rollup -> rollup.facet).toList();
+    }
+    
+    // Mode lecture seule : facettes calculées sur l'instantané, pas sur la base vide
+    @EventListener(value = ApplicationReadyEvent.class, condition = "!@productSnapshotStore.isServing()")
+    public void rebuild() {
+        log.info("Loading product states into the category facet rollups");
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Map<Long, Counted> freshProducts = new HashMap<>();
+        try {
+            for (Object[] row : productRepository.findFacetStates()) {
+                freshProducts.put((Long) row[0], new Counted((String) row[1], (BigDecimal) row[2],
+                        row[3] == null ? 0 : ((Number) row[3]).longValue(), version((Long) row[4])));
+            }
+        } catch (RuntimeException ex) {
+            log.error("Category facet rollups load failed, falling back to database aggregation", ex);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            byProduct = freshProducts;
+            byCategory = new TreeMap<>();
+            deleted.clear();
+            freshProducts.values().forEach(this::count);
+            // Rejeu sans risque : un changement déjà vu par la lecture porte une version déjà connue
+            pendingDuringRebuild.forEach(this::apply);
+            pendingDuringRebuild = null;
+            ready = true;
+            log.info("Category facet rollups ready: {} categories, {} products", byCategory.size(), byProduct.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void apply(ProductChangedEvent event) {
+        Long id = event.productId();
+        if (deleted.isDeleted(id)) {
+            return;
+        }
+        Counted current = byProduct.get(id);
+        ProductResponse after = event.after();
+        if (after == null) {
+            deleted.put(id, RecentProductVersions.DELETED);
+            if (current != null) {
+                byProduct.remove(id);
+                uncount(current);
+            }
+            return;
+        }
+        Counted next = new Counted(after.getCategory(), after.getPrice(), quantity(after), version(after.getVersion()));
+        if (current != null && next.version() <= current.version()) {
+            return;
+        }
+        if (current != null) {
+            uncount(current);
+        }
+        byProduct.put(id, next);
+        count(next);
+    }
+    
+    private void count(Counted product) {
+        byCategory.computeIfAbsent(product.category(), Rollup::new).add(product.price(), product.quantity(), 1);
+    }
+    
+    private void uncount(Counted product) {
+        Rollup rollup = byCategory.get(product.category());
+        rollup.remove(product.price(), product.quantity());
+        if (rollup.count == 0) {
+            byCategory.remove(product.category());
+        }
+    }
+    
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+    
+    private static long quantity(ProductResponse product) {
+        return product.getQuantity() == null ? 0 : product.getQuantity();
+    }
+    
+    /**
+     * Contribution d'un produit aux agrégats de sa catégorie.
+     */
+    private record Counted(String category, BigDecimal price, long quantity, long version) {
+    }
+    
+    /**
+     * Agrégats d'une catégorie. Accès sous le verrou de {@link CategoryFacetRollups}.
+     */
+    private static final class Rollup {
+        
+        private final String category;
+        private final NavigableMap<BigDecimal, Long> prices = new TreeMap<>();
+        private long count;
+        private long totalQuantity;
+        private BigDecimal priceSum = BigDecimal.ZERO;
+        private CategoryFacet facet;
+        
+        Rollup(String category) {
+            this.category = category;
+        }
+        
+        void add(BigDecimal price, long quantity, long products) {
+            prices.merge(price, products, Long::sum);
+            count += products;
+            totalQuantity += quantity;
+            priceSum = priceSum.add(price.multiply(BigDecimal.valueOf(products)));
+            refresh();
+        }
+        
+        // Appelé uniquement pour un produit compté : le prix figure dans le multi-ensemble
+        void remove(BigDecimal price, long quantity) {
+            long products = prices.get(price);
+            if (products == 1) {
+                prices.remove(price);
+            } else {
+                prices.put(price, products - 1);
+            }
+            count--;
+            totalQuantity -= quantity;
+            priceSum = priceSum.subtract(price);
+            refresh();
+        }
+        
+        private void refresh() {
+            facet = count == 0 ? null : CategoryFacet.builder()
+                    .category(category)
+                    .productCount(count)
+                    .minPrice(prices.firstKey())
+                    .maxPrice(prices.lastKey())
+                    .avgPrice(priceSum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP))
+                    .totalQuantity(totalQuantity)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ImportJobStatus;
+import com.example.product_management.dto.ImportRowError;
+import com.example.product_management.dto.ProductImportFormat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * État d'un import, mis à jour par les étapes du pipeline et lu à tout moment par GET /imports/{id}.
+ */
+class ImportJob {
+
+    private final String id;
+    private final String fileName;
+    private final ProductImportFormat format;
+    private final int maxErrors;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<ImportRowError> errors = new ArrayList<>();
+
+    private volatile ImportJobStatus.State state = ImportJobStatus.State.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile String failureReason;
+
+    ImportJob(String id, String fileName, ProductImportFormat format, int maxErrors) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ProductImportFormat format() {
+        return format;
+    }
+
+    void start() {
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        state = ImportJobStatus.State.RUNNING;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void reject(long line, String name, String error) {
+        rowsRejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportRowError(line, name, error));
+            }
+        }
+    }
+
+    /**
+     * Marque l'import en échec ; les étapes encore actives s'arrêtent dès qu'elles le constatent.
+     * Seule la première cause est conservée.
+     */
+    synchronized void fail(String reason) {
+        if (isFinished()) {
+            return;
+        }
+        failureReason = reason;
+        finish(ImportJobStatus.State.FAILED);
+    }
+
+    synchronized void complete() {
+        if (!isFinished()) {
+            finish(ImportJobStatus.State.COMPLETED);
+        }
+    }
+
+    boolean isFailed() {
+        return state == ImportJobStatus.State.FAILED;
+    }
+
+    boolean isFinished() {
+        return state == ImportJobStatus.State.COMPLETED || state == ImportJobStatus.State.FAILED;
+    }
+
+    LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    ImportJobStatus status() {
+        List<ImportRowError> errorsSnapshot;
+        synchronized (errors) {
+            errorsSnapshot = List.copyOf(errors);
+        }
+        long processed = rowsImported.get() + rowsRejected.get();
+        return ImportJobStatus.builder()
+                .jobId(id)
+                .fileName(fileName)
+                .format(format)
+                .state(state)
+                .rowsRead(rowsRead.get())
+                .rowsImported(rowsImported.get())
+                .rowsRejected(rowsRejected.get())
+                .rowsPerSecond(rate(processed))
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .failureReason(failureReason)
+                .errors(errorsSnapshot)
+                .errorsTruncated(rowsRejected.get() > errorsSnapshot.size())
+                .build();
+    }
+
+    private void finish(ImportJobStatus.State finalState) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        state = finalState;
+    }
+
+    private double rate(long processed) {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        double seconds = Duration.ofNanos(end - startedNanos).toMillis() / 1000.0;
+        return seconds <= 0 ? 0 : Math.round(processed / seconds * 10) / 10.0;
+    }
+}
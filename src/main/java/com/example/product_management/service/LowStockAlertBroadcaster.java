@@ -0,0 +1,89 @@
+package com.example.product_management.service;
+
+import com.example.product_management.config.LowStockProperties;
+import com.example.product_management.dto.LowStockAlert;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Diffuse les alertes de stock faible aux abonnés SSE.
+ * <p>
+ * L'envoi se fait sur un thread dédié : un client lent ne retarde jamais la transaction
+ * qui a déclenché l'alerte, et les alertes partent dans l'ordre où elles ont été émises.
+ */
+@Component
+@Slf4j
+public class LowStockAlertBroadcaster {
+    
+    private final long subscriptionTimeoutMs;
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public LowStockAlertBroadcaster(LowStockProperties properties) {
+        this.subscriptionTimeoutMs = properties.getSubscriptionTimeoutMs();
+    }
+    
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(ex -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        log.debug("New low-stock alert subscriber ({} active)", subscribers.size());
+        return emitter;
+    }
+    
+    public void broadcast(LowStockAlert alert) {
+        log.info("Low-stock alert {} for product {} (quantity {}, threshold {})",
+                alert.getType(), alert.getProductId(), alert.getQuantity(), alert.getThreshold());
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> send(() -> SseEmitter.event()
+                .name("low-stock")
+                .id(String.valueOf(alert.getProductId()))
+                .data(alert, MediaType.APPLICATION_JSON)));
+    }
+    
+    // Commentaire SSE périodique : garde les connexions ouvertes et détecte les clients partis
+    @Scheduled(fixedDelay = 15_000)
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            sender.execute(() -> send(() -> SseEmitter.event().comment("keep-alive")));
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+    
+    // Un builder par abonné : SseEventBuilder n'est pas réutilisable après envoi
+    private void send(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Dropping low-stock alert subscriber: {}", ex.getMessage());
+                subscribers.remove(emitter);
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.product_management.service;
+
+import com.example.product_management.config.LowStockProperties;
+import com.example.product_management.dto.LowStockAlert;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Produits à faible stock tenus en mémoire, triés par (quantité, id).
+ * <p>
+ * Tous les produits dont la quantité est sous {@link LowStockProperties#effectiveTrackedBelow()}
+ * sont suivis : une requête « quantité &lt; seuil » sous cette limite se résout par un parcours
+ * de tête de l'ensemble trié, en O(k) pour k résultats. L'état est chargé au démarrage puis
+ * tenu à jour à partir des {@link ProductChangedEvent}. Le passage d'un produit sous le seuil
+ * de sa catégorie (ou son retour au-dessus) est diffusé aux abonnés SSE.
+ * <p>
+ * Un événement d'une version antérieure ou égale à la dernière vue (reçu dans le désordre après
+ * un commit plus récent, par exemple deux décréments concurrents) est ignoré et n'émet pas
+ * d'alerte. La version d'un produit suivi est celle de son entrée ; celle d'un produit hors du
+ * suivi ou supprimé est retenue un temps dans {@link RecentProductVersions}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockTracker {
+    
+    private static final Comparator<ProductResponse> BY_QUANTITY_THEN_ID =
+            Comparator.comparing(ProductResponse::getQuantity).thenComparing(ProductResponse::getId);
+    
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final LowStockProperties properties;
+    private final LowStockAlertBroadcaster alertBroadcaster;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private NavigableSet<ProductResponse> byQuantity = new TreeSet<>(BY_QUANTITY_THEN_ID);
+    private Map<Long, ProductResponse> byId = new HashMap<>();
+    private final RecentProductVersions untracked = new RecentProductVersions();
+    private List<ProductChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+    
+    /**
+     * Vrai si {@link #findBelow(int)} peut répondre pour ce seuil sans interroger la base.
+     */
+    public boolean covers(int threshold) {
+        return ready && threshold <= properties.effectiveTrackedBelow();
+    }
+    
+    /**
+     * Produits dont la quantité est strictement inférieure à {@code threshold}, par quantité croissante.
+     */
+    public List<ProductResponse> findBelow(int threshold) {
+        ProductResponse bound = ProductResponse.builder().quantity(threshold).id(Long.MIN_VALUE).build();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byQuantity.headSet(bound, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Mode lecture seule : GET /low-stock est servi par l'instantané
+    @EventListener(value = ApplicationReadyEvent.class, condition = "!@productSnapshotStore.isServing()")
+    public void rebuild() {
+        int trackedBelow = properties.effectiveTrackedBelow();
+        log.info("Loading products with quantity below {} into the low-stock tracker", trackedBelow);
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        NavigableSet<ProductResponse> freshByQuantity = new TreeSet<>(BY_QUANTITY_THEN_ID);
+        Map<Long, ProductResponse> freshById = new HashMap<>();
+        try {
+            productRepository.findLowStockProducts(trackedBelow).forEach(product -> {
+                ProductResponse response = productMapper.toResponse(product);
+                freshByQuantity.add(response);
+                freshById.put(response.getId(), response);
+            });
+        } catch (RuntimeException ex) {
+            // GET /low-stock reste servi par la base tant que le suivi n'est pas prêt
+            log.error("Low-stock tracker load failed, falling back to database queries", ex);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            byQuantity = freshByQuantity;
+            byId = freshById;
+            untracked.clear();
+            // Rejouer les écritures arrivées pendant le chargement, sans alerte : elles ont déjà été diffusées
+            pendingDuringRebuild.forEach(event -> apply(event, trackedBelow));
+            pendingDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Low-stock tracker loaded: {} products", freshById.size());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        boolean applied = true;
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            } else {
+                applied = apply(event, properties.effectiveTrackedBelow());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        // Événement périmé : son alerte contredirait l'état déjà diffusé
+        LowStockAlert alert = applied ? crossing(event) : null;
+        if (alert != null) {
+            alertBroadcaster.broadcast(alert);
+        }
+    }
+    
+    // Faux si l'événement est plus ancien que la dernière version vue du produit
+    private boolean apply(ProductChangedEvent event, int trackedBelow) {
+        Long id = event.productId();
+        ProductResponse after = event.after();
+        long version = after == null ? RecentProductVersions.DELETED : version(after.getVersion());
+        ProductResponse previous = byId.get(id);
+        Long seen = previous != null ? Long.valueOf(version(previous.getVersion())) : untracked.get(id);
+        if (seen != null && version <= seen) {
+            return false;
+        }
+        if (previous != null) {
+            byId.remove(id);
+            byQuantity.remove(previous);
+        }
+        if (after != null && after.getQuantity() != null && after.getQuantity() < trackedBelow) {
+            byQuantity.add(after);
+            byId.put(id, after);
+            untracked.remove(id);
+        } else {
+            untracked.put(id, version);
+        }
+        return true;
+    }
+    
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+    
+    /**
+     * Alerte à émettre si l'écriture fait franchir au produit le seuil de sa catégorie, sinon null.
+     */
+    LowStockAlert crossing(ProductChangedEvent event) {
+        ProductResponse before = event.before();
+        ProductResponse after = event.after();
+        boolean wasLow = before != null && before.getQuantity() < properties.thresholdFor(before.getCategory());
+        boolean isLow = after != null && after.getQuantity() < properties.thresholdFor(after.getCategory());
+        if (wasLow == isLow) {
+            return null;
+        }
+        
+        ProductResponse product = after != null ? after : before;
+        return LowStockAlert.builder()
+                .type(isLow ? LowStockAlert.Type.LOW : LowStockAlert.Type.CLEARED)
+                .productId(product.getId())
+                .name(product.getName())
+                .category(product.getCategory())
+                .quantity(after != null ? after.getQuantity() : 0)
+                .threshold(properties.thresholdFor(product.getCategory()))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
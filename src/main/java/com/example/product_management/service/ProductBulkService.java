@@ -0,0 +1,249 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.BulkItemResult;
+import com.example.product_management.dto.BulkOperationResponse;
+import com.example.product_management.dto.BulkProductUpdateRequest;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.exception.BadRequestException;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Créations, mises à jour et suppressions en masse. Chaque élément reçoit son propre résultat ;
+ * les éléments valides sont écrits en une seule transaction avec des requêtes groupées
+ * (vérification des noms par IN, INSERT/UPDATE en batch JDBC).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.bulk.max-size:1000}")
+    private int maxBulkSize = 1000;
+
+    @Transactional
+    public BulkOperationResponse createProducts(List<ProductRequest> requests) {
+        checkSize(requests);
+        log.info("Bulk creating {} products", requests.size());
+
+        BulkItemResult[] results = new BulkItemResult[requests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ProductRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BulkItemResult.failure(i, null, error);
+            } else if (candidates.putIfAbsent(normalize(request.getName()), i) != null) {
+                results[i] = BulkItemResult.failure(i, null, "Duplicate name '" + request.getName() + "' in request");
+            }
+        }
+
+        insertNew(requests, candidates, results);
+        return BulkOperationResponse.of(results);
+    }
+
+    @Transactional
+    public BulkOperationResponse updateProducts(List<BulkProductUpdateRequest> requests) {
+        checkSize(requests);
+        log.info("Bulk updating {} products", requests.size());
+
+        BulkItemResult[] results = new BulkItemResult[requests.size()];
+        Map<Long, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BulkProductUpdateRequest request = requests.get(i);
+            String error = validate(request);
+            Long id = request == null ? null : request.getId();
+            if (error != null) {
+                results[i] = BulkItemResult.failure(i, id, error);
+            } else if (candidates.putIfAbsent(id, i) != null) {
+                results[i] = BulkItemResult.failure(i, id, "Duplicate id " + id + " in request");
+            }
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(candidates.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Noms demandés qui changent : une seule requête pour détecter les conflits
+        Set<String> newNames = new HashSet<>();
+        for (Map.Entry<Long, Integer> candidate : candidates.entrySet()) {
+            Product product = products.get(candidate.getKey());
+            String name = requests.get(candidate.getValue()).getProduct().getName();
+            if (product != null && !normalize(product.getName()).equals(normalize(name))) {
+                newNames.add(name);
+            }
+        }
+        Map<String, Long> nameOwners = newNames.isEmpty() ? Map.of() : productRepository.findByNameIn(newNames).stream()
+                .collect(Collectors.toMap(p -> normalize(p.getName()), Product::getId, (a, b) -> a));
+
+        Set<String> claimedNames = new HashSet<>();
+        List<Product> updated = new ArrayList<>();
+        List<ProductResponse> before = new ArrayList<>();
+        for (Map.Entry<Long, Integer> candidate : candidates.entrySet()) {
+            Long id = candidate.getKey();
+            int index = candidate.getValue();
+            ProductRequest request = requests.get(index).getProduct();
+            Product product = products.get(id);
+            String name = normalize(request.getName());
+            Long owner = nameOwners.get(name);
+
+            if (product == null) {
+                results[index] = BulkItemResult.failure(index, id, "Product not found with id: " + id);
+            } else if ((owner != null && !owner.equals(id)) || !claimedNames.add(name)) {
+                results[index] = BulkItemResult.failure(index, id, "Product with name '" + request.getName() + "' already exists");
+            } else {
+                before.add(productMapper.toResponse(product));
+                productMapper.updateEntity(request, product);
+                updated.add(product);
+                results[index] = BulkItemResult.success(index, id);
+            }
+        }
+
+        // Les entités sont gérées : le flush émet les UPDATE en batch (hibernate.order_updates)
+        productRepository.flush();
+        // Après le flush : l'état publié porte la version incrémentée
+        for (int i = 0; i < updated.size(); i++) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before.get(i), productMapper.toResponse(updated.get(i))));
+        }
+        return BulkOperationResponse.of(results);
+    }
+
+    @Transactional
+    public BulkOperationResponse deleteProducts(List<Long> ids) {
+        checkSize(ids);
+        log.info("Bulk deleting {} products", ids.size());
+
+        BulkItemResult[] results = new BulkItemResult[ids.size()];
+        Map<Long, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = BulkItemResult.failure(i, null, "Id is mandatory");
+            } else if (candidates.putIfAbsent(id, i) != null) {
+                results[i] = BulkItemResult.failure(i, id, "Duplicate id " + id + " in request");
+            }
+        }
+
+        Map<Long, Product> products = productRepository.findAllById(candidates.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        candidates.forEach((id, index) -> results[index] = products.containsKey(id)
+                ? BulkItemResult.success(index, id)
+                : BulkItemResult.failure(index, id, "Product not found with id: " + id));
+
+        if (!products.isEmpty()) {
+            // Un seul DELETE pour tout le lot
+            productRepository.deleteAllInBatch(products.values());
+            products.values().forEach(product ->
+                    eventPublisher.publishEvent(ProductChangedEvent.deleted(productMapper.toResponse(product))));
+        }
+        return BulkOperationResponse.of(results);
+    }
+
+    /**
+     * Insère un lot d'import de fichier dont les lignes ont déjà été validées. Les doublons du lot
+     * et les noms déjà présents en base (une requête IN) sont rejetés ; un résultat par requête.
+     */
+    @Transactional
+    public BulkItemResult[] importBatch(List<ProductRequest> requests) {
+        BulkItemResult[] results = new BulkItemResult[requests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (candidates.putIfAbsent(normalize(requests.get(i).getName()), i) != null) {
+                results[i] = BulkItemResult.failure(i, null, "Duplicate name '" + requests.get(i).getName() + "' in import");
+            }
+        }
+
+        insertNew(requests, candidates, results);
+        return results;
+    }
+
+    /**
+     * Insère les requêtes retenues ({@code candidates} : nom normalisé -> index) après avoir écarté
+     * en une requête les noms déjà présents en base. Renseigne {@code results} pour chaque candidat.
+     */
+    void insertNew(List<ProductRequest> requests, Map<String, Integer> candidates, BulkItemResult[] results) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> existing = productRepository.findExistingNames(
+                        candidates.keySet().stream().map(name -> requests.get(candidates.get(name)).getName()).toList())
+                .stream()
+                .map(ProductBulkService::normalize)
+                .collect(Collectors.toSet());
+
+        List<Product> toSave = new ArrayList<>();
+        List<Integer> savedIndexes = new ArrayList<>();
+        candidates.forEach((name, index) -> {
+            if (existing.contains(name)) {
+                results[index] = BulkItemResult.failure(index, null,
+                        "Product with name '" + requests.get(index).getName() + "' already exists");
+            } else {
+                toSave.add(productMapper.toEntity(requests.get(index)));
+                savedIndexes.add(index);
+            }
+        });
+
+        // Ids issus de la séquence : Hibernate regroupe les INSERT en batch JDBC
+        List<Product> saved = productRepository.saveAll(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            Product product = saved.get(i);
+            int index = savedIndexes.get(i);
+            results[index] = BulkItemResult.success(index, product.getId());
+            eventPublisher.publishEvent(ProductChangedEvent.created(productMapper.toResponse(product)));
+        }
+        log.info("Bulk inserted {} products", saved.size());
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("Bulk request must contain at least one item");
+        }
+        if (items.size() > maxBulkSize) {
+            throw new BadRequestException("Bulk request cannot contain more than " + maxBulkSize + " items");
+        }
+    }
+
+    private <T> String validate(T item) {
+        if (item == null) {
+            return "Item is mandatory";
+        }
+        return describe(validator.validate(item));
+    }
+
+    /**
+     * Message d'erreur regroupant les violations de contraintes, ou null s'il n'y en a pas.
+     */
+    static <T> String describe(Set<ConstraintViolation<T>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // La contrainte d'unicité MySQL ignore la casse : on compare les noms de la même façon
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
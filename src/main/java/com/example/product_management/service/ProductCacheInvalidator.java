@@ -0,0 +1,94 @@
+package com.example.product_management.service;
+
+import com.example.product_management.config.CacheConfig;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cohérence du cache des produits avec les écritures validées.
+ * <p>
+ * Chaque écriture validée incrémente la génération du produit puis l'évince du cache. Un
+ * chargement relève la génération avant de lire la base et, après avoir mis son résultat en
+ * cache, la relit : si une écriture a été validée entre-temps, il retire ce qu'il vient de
+ * poser. Quel que soit l'entrelacement, une lecture commencée avant une écriture ne laisse pas
+ * sa valeur périmée dans le cache après l'éviction.
+ * <p>
+ * Les générations sont réparties sur un nombre fixe de compteurs (mémoire bornée) : deux
+ * produits qui partagent un compteur ne font que perdre, rarement, une mise en cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheInvalidator {
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final CacheManager cacheManager;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    // Invalidation après commit : la lecture suivante recharge forcément la version validée
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.CREATED) {
+            return;
+        }
+        // Génération d'abord : un chargement qui pose sa valeur après l'éviction la voit changée
+        generations.incrementAndGet(stripe(event.productId()));
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            log.debug("Evicting product {} from cache after {}", event.productId(), event.type());
+            cache.evict(event.productId());
+        }
+    }
+
+    /**
+     * Génération courante du produit, à relever avant de le lire en base.
+     */
+    public long generation(Long id) {
+        return generations.get(stripe(id));
+    }
+
+    /**
+     * Met en cache une copie du produit lu, sauf si une écriture a été validée depuis
+     * {@code generation}.
+     */
+    public void cacheIfUnchanged(ProductResponse product, long generation) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache == null || generation(product.getId()) != generation) {
+            return;
+        }
+        cache.put(product.getId(), copy(product));
+        // Écriture validée entre la vérification et la mise en cache : son éviction a pu passer avant
+        if (generation(product.getId()) != generation) {
+            cache.evict(product.getId());
+        }
+    }
+
+    /**
+     * Produit en cache, copié : l'instance partagée n'est jamais exposée aux appelants.
+     */
+    public ProductResponse get(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        ProductResponse cached = cache == null ? null : cache.get(id, ProductResponse.class);
+        return cached == null ? null : copy(cached);
+    }
+
+    private static ProductResponse copy(ProductResponse product) {
+        return new ProductResponse(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getQuantity(), product.getCategory(), product.getCreatedAt(), product.getUpdatedAt(),
+                product.getVersion());
+    }
+
+    private static int stripe(Long id) {
+        return (Long.hashCode(id) & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductChangeMessage;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.exception.ServiceOverloadedException;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.model.ProductChange;
+import com.example.product_management.model.ProductChangeRelay;
+import com.example.product_management.repository.ProductChangeRelayRepository;
+import com.example.product_management.repository.ProductChangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Flux ordonné des changements du catalogue, diffusé en SSE.
+ * <p>
+ * Les écritures produit déposent une ligne dans la table outbox ({@link ProductChangeOutbox}).
+ * Un relais périodique numérote les lignes validées, ce qui donne une séquence croissante sans
+ * trou même quand les transactions valident dans le désordre. Les changements d'un même produit
+ * sont numérotés dans l'ordre de leurs versions, c'est-à-dire de validation : les ids de l'outbox
+ * sont alloués par blocs et ne suivent pas cet ordre.
+ * <p>
+ * La numérotation se fait sous le verrou de la ligne {@link ProductChangeRelay}, qui porte la
+ * dernière séquence attribuée : avec plusieurs instances, un seul relais numérote à la fois.
+ * Chaque instance remplit ensuite son tampon circulaire en relisant l'outbox par séquence, y
+ * compris les lignes numérotées par les autres instances.
+ * <p>
+ * Chaque abonné a son propre thread virtuel et sa propre position : il lit le tampon, ou la
+ * table outbox s'il est trop en retard, et n'avance qu'une fois l'envoi précédent écrit sur la
+ * socket. Un client lent ne ralentit que lui-même et ne fait pas grossir la mémoire du serveur.
+ */
+@Service
+@Slf4j
+public class ProductChangeFeed {
+    
+    private static final int BATCH_SIZE = 500;
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+    
+    // Ordre de validation des changements d'un même produit : la version croît à chaque écriture,
+    // la suppression reprend la version de la dernière écriture et passe après elle
+    private static final Comparator<ProductChange> COMMIT_ORDER = Comparator
+            .comparing(ProductChange::getProductVersion, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(change -> change.getChangeType() == ProductChangedEvent.ChangeType.DELETED)
+            .thenComparing(ProductChange::getId);
+    
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductChangeRelayRepository productChangeRelayRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int bufferCapacity;
+    private final int maxSubscribers;
+    private final long subscriptionTimeoutMs;
+    private final Duration retention;
+    
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private volatile ProductChangeRingBuffer buffer;
+    
+    public ProductChangeFeed(ProductChangeRepository productChangeRepository,
+                             ProductChangeRelayRepository productChangeRelayRepository,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${product.changes.buffer-capacity:10000}") int bufferCapacity,
+                             @Value("${product.changes.max-subscribers:100}") int maxSubscribers,
+                             @Value("${product.changes.subscription-timeout-ms:1800000}") long subscriptionTimeoutMs,
+                             @Value("${product.changes.retention:7d}") Duration retention) {
+        this.productChangeRepository = productChangeRepository;
+        this.productChangeRelayRepository = productChangeRelayRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.bufferCapacity = bufferCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.subscriptionTimeoutMs = subscriptionTimeoutMs;
+        this.retention = retention;
+        
+        Gauge.builder("product.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+        Gauge.builder("product.changes.sequence", this, feed -> feed.buffer == null ? 0 : feed.buffer.lastSequence())
+                .description("Last sequence number published on the change feed")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Séquence du relais plutôt que MAX(feed_sequence) : la purge a pu vider l'outbox
+        long lastSequence = transactionTemplate.execute(status -> productChangeRelayRepository
+                .findById(ProductChangeRelay.ID)
+                .map(ProductChangeRelay::getLastSequence)
+                .orElseGet(() -> productChangeRepository.findMaxSequence().orElse(0L)));
+        buffer = new ProductChangeRingBuffer(bufferCapacity, lastSequence);
+        log.info("Product change feed started at sequence {}", lastSequence);
+    }
+    
+    /**
+     * Dernière séquence publiée sur le flux, vide tant que le flux n'est pas démarré. Elle avance
+     * à chaque écriture validée, au plus {@code product.changes.relay-interval-ms} après le commit.
+     */
+    public OptionalLong lastSequence() {
+        ProductChangeRingBuffer current = buffer;
+        return current == null ? OptionalLong.empty() : OptionalLong.of(current.lastSequence());
+    }
+    
+    /**
+     * Numérote les changements validés depuis le dernier passage, puis publie dans le tampon
+     * tous les changements numérotés, par cette instance ou par une autre.
+     */
+    @Scheduled(fixedDelayString = "${product.changes.relay-interval-ms:200}")
+    public synchronized void relay() {
+        ProductChangeRingBuffer current = buffer;
+        if (current == null) {
+            return;
+        }
+        
+        Integer numbered;
+        do {
+            numbered = transactionTemplate.execute(status -> numberBatch());
+        } while (numbered != null && numbered >= BATCH_SIZE);
+        
+        // Publié seulement après validation de la numérotation ; transaction non read-only : lu sur la primaire
+        List<ProductChangeMessage> messages;
+        do {
+            long after = current.lastSequence();
+            messages = transactionTemplate.execute(status -> productChangeRepository
+                    .findBySequenceGreaterThanOrderBySequenceAsc(after, PageRequest.of(0, BATCH_SIZE))
+                    .stream()
+                    .map(this::toMessage)
+                    .toList());
+            current.append(messages);
+        } while (messages.size() == BATCH_SIZE);
+    }
+    
+    // Dans une transaction : verrou du relais, puis numérotation d'un lot à la suite de la dernière séquence
+    private int numberBatch() {
+        ProductChangeRelay relay = productChangeRelayRepository.findByIdForUpdate(ProductChangeRelay.ID)
+                .orElseGet(() -> productChangeRelayRepository.saveAndFlush(new ProductChangeRelay(
+                        ProductChangeRelay.ID, productChangeRepository.findMaxSequence().orElse(0L))));
+        List<ProductChange> batch = productChangeRepository
+                .findBySequenceIsNullOrderByIdAsc(PageRequest.of(0, BATCH_SIZE));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        // Les changements non numérotés des produits du lot, même ceux restés hors du lot : un
+        // changement plus ancien peut avoir un id plus grand. Chaque produit garde les positions
+        // (ordre des ids) de ses changements, occupées dans l'ordre de validation.
+        Map<Long, ProductChange> changes = new TreeMap<>();
+        batch.forEach(change -> changes.put(change.getId(), change));
+        Set<Long> productIds = batch.stream().map(ProductChange::getProductId).collect(Collectors.toSet());
+        productChangeRepository.findBySequenceIsNullAndProductIdIn(productIds)
+                .forEach(change -> changes.putIfAbsent(change.getId(), change));
+        Map<Long, Deque<ProductChange>> byProduct = new HashMap<>();
+        changes.values().stream()
+                .sorted(COMMIT_ORDER)
+                .forEach(change -> byProduct.computeIfAbsent(change.getProductId(), id -> new ArrayDeque<>()).add(change));
+        
+        long sequence = relay.getLastSequence();
+        for (ProductChange slot : changes.values()) {
+            byProduct.get(slot.getProductId()).poll().setSequence(++sequence);
+        }
+        relay.setLastSequence(sequence);
+        return changes.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${product.changes.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                productChangeRepository.deleteSequencedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} change feed entries older than {}", deleted, retention);
+        }
+    }
+    
+    /**
+     * Ouvre un abonnement qui commence après {@code afterSequence} ; null pour ne recevoir
+     * que les changements à venir, 0 pour relire tout l'historique conservé.
+     */
+    public SseEmitter subscribe(Long afterSequence) {
+        ProductChangeRingBuffer current = buffer;
+        if (current == null) {
+            throw new ServiceOverloadedException("Change feed is starting, please retry", 1);
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ServiceOverloadedException("Too many change feed subscribers", 5);
+        }
+        
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutMs);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(ex -> open.set(false));
+        
+        long start = afterSequence != null ? afterSequence : current.lastSequence();
+        Thread.ofVirtual()
+                .name("product-changes-subscriber")
+                .start(() -> stream(current, emitter, open, start));
+        return emitter;
+    }
+    
+    private void stream(ProductChangeRingBuffer current, SseEmitter emitter, AtomicBoolean open, long start) {
+        long position = start;
+        try {
+            while (open.get()) {
+                List<ProductChangeMessage> batch = current.readAfter(position, BATCH_SIZE);
+                if (batch == null) {
+                    // Trop en retard pour le tampon : relecture depuis l'outbox
+                    batch = productChangeRepository
+                            .findBySequenceGreaterThanOrderBySequenceAsc(position, PageRequest.of(0, BATCH_SIZE))
+                            .stream()
+                            .map(this::toMessage)
+                            .toList();
+                }
+                if (batch.isEmpty()) {
+                    if (!current.awaitAfter(position, HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    continue;
+                }
+                for (ProductChangeMessage message : batch) {
+                    // send() bloque tant que le client n'a pas lu : c'est la contre-pression
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(message.getSequence()))
+                            .name(message.getType().name())
+                            .data(message, MediaType.APPLICATION_JSON));
+                    position = message.getSequence();
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Change feed subscriber disconnected at sequence {}: {}", position, ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.error("Change feed subscriber failed at sequence {}", position, ex);
+            emitter.completeWithError(ex);
+        } finally {
+            subscribers.decrementAndGet();
+        }
+    }
+    
+    private ProductChangeMessage toMessage(ProductChange change) {
+        try {
+            return ProductChangeMessage.builder()
+                    .sequence(change.getSequence())
+                    .type(change.getChangeType())
+                    .productId(change.getProductId())
+                    .product(objectMapper.readValue(change.getPayload(), ProductResponse.class))
+                    .occurredAt(change.getCreatedAt())
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Corrupted change feed entry " + change.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.model.ProductChange;
+import com.example.product_management.repository.ProductChangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Écrit chaque {@link ProductChangedEvent} dans la table outbox. L'écoute est synchrone :
+ * la ligne est insérée dans la transaction de l'écriture produit et n'existe que si elle est validée.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductChangeOutbox {
+    
+    private final ProductChangeRepository productChangeRepository;
+    private final ObjectMapper objectMapper;
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponse product = event.after() != null ? event.after() : event.before();
+        productChangeRepository.save(ProductChange.builder()
+                .changeType(event.type())
+                .productId(event.productId())
+                .productVersion(product.getVersion())
+                .payload(toJson(product))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+    
+    private String toJson(ProductResponse product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize product " + product.getId() + " for the change feed", ex);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductChangeMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Derniers changements du flux, en mémoire, indexés par numéro de séquence.
+ * <p>
+ * Capacité fixe : l'ajout écrase le plus ancien. Un lecteur dont la position est sortie du
+ * tampon reçoit {@code null} et doit relire la table outbox. Verrou et condition explicites
+ * plutôt que {@code synchronized} : les abonnés attendent sur des threads virtuels.
+ */
+public class ProductChangeRingBuffer {
+    
+    private final ProductChangeMessage[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long lastSequence;
+    private int size;
+    
+    public ProductChangeRingBuffer(int capacity, long lastSequence) {
+        this.slots = new ProductChangeMessage[capacity];
+        this.lastSequence = lastSequence;
+    }
+    
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Ajoute des messages dont les séquences suivent exactement {@link #lastSequence()}.
+     */
+    public void append(List<ProductChangeMessage> messages) {
+        lock.lock();
+        try {
+            for (ProductChangeMessage message : messages) {
+                if (message.getSequence() != lastSequence + 1) {
+                    throw new IllegalStateException("Expected change sequence " + (lastSequence + 1)
+                            + " but got " + message.getSequence());
+                }
+                slots[slot(message.getSequence())] = message;
+                lastSequence = message.getSequence();
+                size = Math.min(size + 1, slots.length);
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Au plus {@code max} messages de séquence supérieure à {@code after} ; liste vide si le
+     * lecteur est à jour, {@code null} si les messages demandés ne sont plus dans le tampon.
+     */
+    public List<ProductChangeMessage> readAfter(long after, int max) {
+        lock.lock();
+        try {
+            if (after >= lastSequence) {
+                return List.of();
+            }
+            long oldest = lastSequence - size + 1;
+            if (after + 1 < oldest) {
+                return null;
+            }
+            long to = Math.min(lastSequence, after + max);
+            List<ProductChangeMessage> messages = new ArrayList<>((int) (to - after));
+            for (long sequence = after + 1; sequence <= to; sequence++) {
+                messages.add(slots[slot(sequence)]);
+            }
+            return messages;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Attend qu'un message de séquence supérieure à {@code after} soit disponible.
+     *
+     * @return false si le délai est écoulé sans nouveau message
+     */
+    public boolean awaitAfter(long after, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (lastSequence <= after) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) slots.length);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportService {
+    
+    private static final int FLUSH_EVERY = 500;
+    
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final ProductSnapshotStore productSnapshotStore;
+    
+    /**
+     * Écrit tout le catalogue en NDJSON (un produit par ligne). Les lignes sont lues via un
+     * curseur forward-only et chaque entité est détachée après écriture : la mémoire utilisée
+     * reste constante quelle que soit la taille de la table.
+     */
+    @Transactional(readOnly = true)
+    public long exportAsNdjson(OutputStream out) throws IOException {
+        log.info("Starting NDJSON catalog export");
+        ObjectWriter writer = objectMapper.writerFor(ProductResponse.class);
+        long count = 0;
+        
+        // Mode lecture seule : l'instantané mappé, parcouru par id comme la table
+        if (productSnapshotStore.isServing()) {
+            Iterator<ProductResponse> iterator = productSnapshotStore.current().iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+            log.info("NDJSON catalog export finished from snapshot: {} products", count);
+            return count;
+        }
+        
+        try (Stream<Product> products = productRepository.streamAll()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                out.write(writer.writeValueAsBytes(productMapper.toResponse(product)));
+                out.write('\n');
+                entityManager.detach(product);
+                
+                if (++count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        
+        log.info("NDJSON catalog export finished: {} products", count);
+        return count;
+    }
+}
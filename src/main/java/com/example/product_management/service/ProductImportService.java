@@ -0,0 +1,331 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.BulkItemResult;
+import com.example.product_management.dto.ImportJobStatus;
+import com.example.product_management.dto.ProductImportFormat;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.exception.BadRequestException;
+import com.example.product_management.exception.ResourceNotFoundException;
+import com.example.product_management.exception.ServiceOverloadedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Import asynchrone de fichiers catalogue (CSV, NDJSON, tableau JSON) de taille quelconque.
+ * <p>
+ * Le fichier reçu est d'abord écrit sur disque, puis traité par un pipeline en trois étapes
+ * reliées par des files bornées (la lecture ralentit quand l'écriture en base ne suit pas) :
+ * <ol>
+ *     <li>lecture incrémentale et découpage en lots ({@link ProductRowReader}) ;</li>
+ *     <li>validation des contraintes de {@link ProductRequest} sur plusieurs threads ;</li>
+ *     <li>écriture d'un lot par transaction via {@link ProductBulkService#importBatch} : noms
+ *     vérifiés en une requête IN, INSERT en batch JDBC.</li>
+ * </ol>
+ * L'avancement, le débit et les erreurs par ligne sont consultables pendant l'import.
+ * L'état des imports est tenu en mémoire sur l'instance qui les exécute.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    // Marqueur de fin de flux entre deux étapes, comparé par identité
+    private static final List<ProductRowReader.Row> END = new ArrayList<>(0);
+    private static final long POLL_MS = 200;
+
+    private final ProductBulkService productBulkService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int validationThreads;
+    private final int queueCapacity;
+    private final int maxQueuedJobs;
+    private final int maxErrors;
+    private final Duration retention;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor jobExecutor;
+    private final AtomicInteger stageThreads = new AtomicInteger();
+    private final Counter rowsImported;
+    private final Counter rowsRejected;
+
+    public ProductImportService(ProductBulkService productBulkService,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${product.import.batch-size:500}") int batchSize,
+                                @Value("${product.import.validation-threads:4}") int validationThreads,
+                                @Value("${product.import.queue-capacity:8}") int queueCapacity,
+                                @Value("${product.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                @Value("${product.import.max-queued-jobs:20}") int maxQueuedJobs,
+                                @Value("${product.import.max-errors:1000}") int maxErrors,
+                                @Value("${product.import.retention:24h}") Duration retention) {
+        this.productBulkService = productBulkService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.validationThreads = validationThreads;
+        this.queueCapacity = queueCapacity;
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "product-import-" + stageThreads.incrementAndGet()));
+
+        Gauge.builder("product.import.jobs.running", jobExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Import jobs currently running")
+                .register(meterRegistry);
+        Gauge.builder("product.import.jobs.queued", jobExecutor, executor -> executor.getQueue().size())
+                .description("Import jobs waiting for a free slot")
+                .register(meterRegistry);
+        rowsImported = Counter.builder("product.import.rows")
+                .description("Rows processed by import jobs")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        rowsRejected = Counter.builder("product.import.rows")
+                .description("Rows processed by import jobs")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre le fichier sur disque et place l'import en file. Le format est déduit de
+     * l'extension du fichier s'il n'est pas précisé.
+     */
+    public ImportJobStatus submit(MultipartFile file, ProductImportFormat format) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is empty");
+        }
+        ProductImportFormat resolved = format != null ? format : ProductImportFormat.fromFileName(file.getOriginalFilename());
+        if (resolved == null) {
+            throw new BadRequestException("Cannot infer import format from file name '" + file.getOriginalFilename()
+                    + "', pass format=CSV, NDJSON or JSON");
+        }
+        if (jobExecutor.getQueue().size() >= maxQueuedJobs) {
+            throw new ServiceOverloadedException("Too many queued import jobs, please retry later", 60);
+        }
+
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("product-import-", "." + resolved.name().toLowerCase(Locale.ROOT));
+            file.transferTo(spooled);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot store import file " + file.getOriginalFilename(), ex);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), resolved, maxErrors);
+        jobs.put(job.id(), job);
+        jobExecutor.execute(() -> run(job, spooled));
+        log.info("Import job {} queued: {} ({}, {} bytes)", job.id(), file.getOriginalFilename(), resolved, file.getSize());
+        return job.status();
+    }
+
+    public ImportJobStatus getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found with id: " + jobId);
+        }
+        return job.status();
+    }
+
+    @Scheduled(fixedDelayString = "${product.import.cleanup-interval-ms:600000}")
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void stop() {
+        jobExecutor.shutdownNow();
+    }
+
+    void run(ImportJob job, Path file) {
+        job.start();
+        log.info("Import job {} started", job.id());
+        BlockingQueue<List<ProductRowReader.Row>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<ProductRowReader.Row>> validated = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService stages = Executors.newFixedThreadPool(validationThreads + 1,
+                runnable -> new Thread(runnable, "product-import-" + job.id().substring(0, 8) + "-" + stageThreads.incrementAndGet()));
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < validationThreads; i++) {
+                running.add(stages.submit(() -> stage(job, () -> validate(job, parsed, validated))));
+            }
+            running.add(stages.submit(() -> stage(job, () -> persist(job, validated))));
+
+            stage(job, () -> read(job, file, parsed));
+            for (Future<?> stage : running) {
+                stage.get();
+            }
+            job.complete();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } catch (ExecutionException ex) {
+            job.fail(ex.getCause().getMessage());
+        } finally {
+            stages.shutdownNow();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Cannot delete spooled import file {}", file, ex);
+            }
+        }
+        ImportJobStatus status = job.status();
+        log.info("Import job {} {}: {} imported, {} rejected, {} rows/s", job.id(), status.getState(),
+                status.getRowsImported(), status.getRowsRejected(), status.getRowsPerSecond());
+    }
+
+    // Étape 1 : lecture du fichier en lots de batchSize lignes
+    private void read(ImportJob job, Path file, BlockingQueue<List<ProductRowReader.Row>> parsed) throws Exception {
+        try (ProductRowReader reader = ProductRowReader.open(file, job.format(), objectMapper)) {
+            List<ProductRowReader.Row> batch = new ArrayList<>(batchSize);
+            ProductRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    if (!offer(job, parsed, batch)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !offer(job, parsed, batch)) {
+                return;
+            }
+        }
+        // Un marqueur de fin par thread de validation
+        for (int i = 0; i < validationThreads; i++) {
+            if (!offer(job, parsed, END)) {
+                return;
+            }
+        }
+    }
+
+    // Étape 2 : contraintes de ProductRequest, en parallèle sur validationThreads threads
+    private void validate(ImportJob job, BlockingQueue<List<ProductRowReader.Row>> parsed,
+                          BlockingQueue<List<ProductRowReader.Row>> validated) throws InterruptedException {
+        List<ProductRowReader.Row> batch;
+        while ((batch = poll(job, parsed)) != null) {
+            if (batch == END) {
+                offer(job, validated, END);
+                return;
+            }
+            List<ProductRowReader.Row> checked = new ArrayList<>(batch.size());
+            for (ProductRowReader.Row row : batch) {
+                checked.add(row.error() != null ? row : row.rejected(ProductBulkService.describe(validator.validate(row.request()))));
+            }
+            if (!offer(job, validated, checked)) {
+                return;
+            }
+        }
+    }
+
+    // Étape 3 : une transaction par lot, lots écrits un par un
+    private void persist(ImportJob job, BlockingQueue<List<ProductRowReader.Row>> validated) throws InterruptedException {
+        int finishedValidators = 0;
+        List<ProductRowReader.Row> batch;
+        while (finishedValidators < validationThreads && (batch = poll(job, validated)) != null) {
+            if (batch == END) {
+                finishedValidators++;
+                continue;
+            }
+            List<ProductRowReader.Row> valid = new ArrayList<>(batch.size());
+            for (ProductRowReader.Row row : batch) {
+                if (row.error() != null) {
+                    reject(job, row, row.error());
+                } else {
+                    valid.add(row);
+                }
+            }
+            if (valid.isEmpty()) {
+                continue;
+            }
+
+            BulkItemResult[] results = productBulkService.importBatch(valid.stream().map(ProductRowReader.Row::request).toList());
+            int imported = 0;
+            for (int i = 0; i < results.length; i++) {
+                if (results[i].isSuccess()) {
+                    imported++;
+                } else {
+                    reject(job, valid.get(i), results[i].getError());
+                }
+            }
+            job.imported(imported);
+            rowsImported.increment(imported);
+        }
+    }
+
+    private void reject(ImportJob job, ProductRowReader.Row row, String error) {
+        job.reject(row.line(), row.name(), error);
+        rowsRejected.increment();
+    }
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    // Une étape en échec fait échouer l'import : les autres étapes s'arrêtent à leur prochaine attente
+    private static void stage(ImportJob job, Stage stage) {
+        try {
+            stage.run();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } catch (Exception ex) {
+            log.error("Import job {} failed", job.id(), ex);
+            job.fail(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Dépose un lot en attendant qu'une place se libère ; false si l'import a échoué entre-temps.
+     */
+    private static boolean offer(ImportJob job, BlockingQueue<List<ProductRowReader.Row>> queue,
+                                 List<ProductRowReader.Row> batch) throws InterruptedException {
+        while (!job.isFailed()) {
+            if (queue.offer(batch, POLL_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prochain lot, ou null si l'import a échoué entre-temps.
+     */
+    private static List<ProductRowReader.Row> poll(ImportJob job, BlockingQueue<List<ProductRowReader.Row>> queue)
+            throws InterruptedException {
+        while (!job.isFailed()) {
+            List<ProductRowReader.Row> batch = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            if (batch != null) {
+                return batch;
+            }
+        }
+        return null;
+    }
+}
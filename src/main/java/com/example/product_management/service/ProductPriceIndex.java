@@ -0,0 +1,411 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Index des prix en mémoire : couples (prix en centimes, id) triés dans deux tableaux de
+ * {@code long}, sans objet par produit. Une fourchette de prix se résout par deux recherches
+ * dichotomiques et renvoie les ids par (prix, id) croissant.
+ * <p>
+ * Les écritures ne recopient pas les tableaux principaux : elles vont dans deux petits tableaux
+ * triés (ajouts, retraits) fusionnés avec les premiers au-delà de {@link #MAX_DELTA} entrées.
+ * Chaque écriture publie un nouvel état immuable : les lectures se font sans verrou.
+ * <p>
+ * Le prix et la version de chaque produit sont retrouvés par id (tableaux triés par id au
+ * chargement, plus les changements depuis) : une écriture retire l'entrée réellement indexée, et
+ * non celle déduite de l'état « avant » de l'événement, qui peut être périmé. Un événement d'une
+ * version antérieure ou égale à celle indexée (reçu dans le désordre après un commit plus récent)
+ * est ignoré, de même qu'un événement tardif sur un produit supprimé. L'index est chargé au
+ * démarrage puis tenu à jour à partir des {@link ProductChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPriceIndex {
+
+    static final int MAX_DELTA = 4096;
+
+    // Bornes au-delà desquelles un prix demandé est ramené (DECIMAL(10,2) tient largement dedans)
+    private static final long MAX_CENTS = Long.MAX_VALUE / 4;
+
+    private final ProductRepository productRepository;
+
+    private volatile State state = new State(Entries.EMPTY, Entries.EMPTY, Entries.EMPTY);
+    // Prix et version indexés par id, écritures uniquement (sous le moniteur) : ids triés, prix et
+    // versions en regard, puis les changements depuis (prix null : produit supprimé)
+    private long[] sortedIds = new long[0];
+    private long[] centsById = new long[0];
+    private long[] versionsById = new long[0];
+    private final Map<Long, Priced> changed = new HashMap<>();
+    private final RecentProductVersions deleted = new RecentProductVersions();
+    private List<ProductChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return state.size();
+    }
+
+    /**
+     * Ids des produits dont le prix est compris entre {@code minPrice} et {@code maxPrice} inclus,
+     * par prix puis id croissants.
+     */
+    public long[] findIdsBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        long from = toCents(minPrice, RoundingMode.CEILING);
+        long to = toCents(maxPrice, RoundingMode.FLOOR);
+        if (from > to) {
+            return new long[0];
+        }
+        return state.range(from, to);
+    }
+
+    // Mode lecture seule : les fourchettes de prix sont lues dans l'instantané
+    @EventListener(value = ApplicationReadyEvent.class, condition = "!@productSnapshotStore.isServing()")
+    public void rebuild() {
+        log.info("Loading product prices into the price index");
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        Entries base;
+        long[] versions;
+        try {
+            List<Object[]> rows = productRepository.findAllPricesOrderByPrice();
+            long[] prices = new long[rows.size()];
+            long[] ids = new long[rows.size()];
+            versions = new long[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = (Long) rows.get(i)[0];
+                prices[i] = toCents((BigDecimal) rows.get(i)[1], RoundingMode.HALF_UP);
+                versions[i] = version((Long) rows.get(i)[2]);
+            }
+            base = new Entries(prices, ids);
+        } catch (RuntimeException ex) {
+            // GET /price-range reste servi par la base tant que l'index n'est pas prêt
+            log.error("Price index load failed, falling back to database queries", ex);
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            State fresh = new State(base, Entries.EMPTY, Entries.EMPTY);
+            indexById(base, versions);
+            deleted.clear();
+            // Écritures validées pendant le chargement : rejouées, sans effet si la version est déjà lue
+            for (ProductChangedEvent event : pendingDuringRebuild) {
+                fresh = apply(fresh, event);
+            }
+            pendingDuringRebuild = null;
+            state = fresh;
+            ready = true;
+        }
+        log.info("Price index loaded: {} products", base.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(event);
+        } else {
+            state = apply(state, event);
+        }
+    }
+
+    /**
+     * Prix en centimes arrondi selon {@code mode}, ramené dans ±{@link #MAX_CENTS}.
+     */
+    static long toCents(BigDecimal price, RoundingMode mode) {
+        BigInteger cents = price.setScale(2, mode).unscaledValue();
+        if (cents.bitLength() >= 62) {
+            return cents.signum() > 0 ? MAX_CENTS : -MAX_CENTS;
+        }
+        return cents.longValue();
+    }
+
+    private State apply(State current, ProductChangedEvent event) {
+        long id = event.productId();
+        if (deleted.isDeleted(id)) {
+            return current;
+        }
+        Priced indexed = indexed(id);
+        ProductResponse product = event.after();
+        long version = product == null ? RecentProductVersions.DELETED : version(product.getVersion());
+        // Commit plus récent déjà indexé : l'événement est périmé
+        if (indexed != null && version <= indexed.version()) {
+            return current;
+        }
+        Long after = cents(product);
+        State next = current;
+        Long before = indexed == null ? null : indexed.cents();
+        // Variation de stock ou de libellé : le prix n'a pas bougé
+        if (!Objects.equals(before, after)) {
+            if (before != null) {
+                next = next.remove(before, id);
+            }
+            if (after != null) {
+                next = next.add(after, id);
+            }
+        }
+        changed.put(id, new Priced(after, version));
+        if (product == null) {
+            deleted.put(id, RecentProductVersions.DELETED);
+        }
+        if (next.deltaSize() > MAX_DELTA) {
+            next = next.merged();
+            long[] versions = new long[next.base().size()];
+            for (int i = 0; i < versions.length; i++) {
+                versions[i] = indexed(next.base().ids[i]).version();
+            }
+            indexById(next.base(), versions);
+        }
+        return next;
+    }
+
+    // Prix et version indexés, null si le produit n'a jamais été vu
+    private Priced indexed(long id) {
+        Priced change = changed.get(id);
+        if (change != null) {
+            return change;
+        }
+        int at = Arrays.binarySearch(sortedIds, id);
+        return at >= 0 ? new Priced(centsById[at], versionsById[at]) : null;
+    }
+
+    // Prix et versions par id recalculés depuis les tableaux principaux (versions dans l'ordre de base)
+    private void indexById(Entries base, long[] versions) {
+        long[] ids = base.ids.clone();
+        Arrays.sort(ids);
+        long[] cents = new long[ids.length];
+        long[] versionsSorted = new long[ids.length];
+        for (int i = 0; i < base.size(); i++) {
+            int at = Arrays.binarySearch(ids, base.ids[i]);
+            cents[at] = base.prices[i];
+            versionsSorted[at] = versions[i];
+        }
+        sortedIds = ids;
+        centsById = cents;
+        versionsById = versionsSorted;
+        changed.clear();
+    }
+
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    private static Long cents(ProductResponse product) {
+        if (product == null || product.getPrice() == null) {
+            return null;
+        }
+        return toCents(product.getPrice(), RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Prix indexé d'un produit (null : supprimé) et version de l'écriture correspondante.
+     */
+    private record Priced(Long cents, long version) {
+    }
+
+    private static int compare(long price, long id, long otherPrice, long otherId) {
+        int byPrice = Long.compare(price, otherPrice);
+        return byPrice != 0 ? byPrice : Long.compare(id, otherId);
+    }
+
+    /**
+     * État publié : tableaux principaux, ajouts absents de {@code base}, retraits présents dans {@code base}.
+     */
+    private record State(Entries base, Entries added, Entries removed) {
+
+        int size() {
+            return base.size() + added.size() - removed.size();
+        }
+
+        int deltaSize() {
+            return added.size() + removed.size();
+        }
+
+        State add(long price, long id) {
+            if (removed.contains(price, id)) {
+                return new State(base, added, removed.without(price, id));
+            }
+            if (base.contains(price, id) || added.contains(price, id)) {
+                return this;
+            }
+            return new State(base, added.with(price, id), removed);
+        }
+
+        State remove(long price, long id) {
+            if (added.contains(price, id)) {
+                return new State(base, added.without(price, id), removed);
+            }
+            if (!base.contains(price, id) || removed.contains(price, id)) {
+                return this;
+            }
+            return new State(base, added, removed.with(price, id));
+        }
+
+        State merged() {
+            return new State(mergeRange(0, base.size(), 0, added.size(), 0), Entries.EMPTY, Entries.EMPTY);
+        }
+
+        long[] range(long fromCents, long toCents) {
+            int baseFrom = base.lowerBound(fromCents);
+            int baseTo = base.upperBound(toCents);
+            int addedFrom = added.lowerBound(fromCents);
+            int addedTo = added.upperBound(toCents);
+            return mergeRange(baseFrom, baseTo, addedFrom, addedTo, removed.lowerBound(fromCents)).ids;
+        }
+
+        // Fusion de base[baseFrom, baseTo) privé des retraits et de added[addedFrom, addedTo)
+        private Entries mergeRange(int baseFrom, int baseTo, int addedFrom, int addedTo, int removedFrom) {
+            int capacity = (baseTo - baseFrom) + (addedTo - addedFrom);
+            long[] prices = new long[capacity];
+            long[] ids = new long[capacity];
+            int size = 0;
+            int b = baseFrom;
+            int a = addedFrom;
+            int r = removedFrom;
+            while (b < baseTo || a < addedTo) {
+                boolean takeBase = a >= addedTo
+                        || (b < baseTo && compare(base.prices[b], base.ids[b], added.prices[a], added.ids[a]) < 0);
+                if (takeBase) {
+                    while (r < removed.size() && compare(removed.prices[r], removed.ids[r], base.prices[b], base.ids[b]) < 0) {
+                        r++;
+                    }
+                    boolean isRemoved = r < removed.size()
+                            && removed.prices[r] == base.prices[b] && removed.ids[r] == base.ids[b];
+                    if (!isRemoved) {
+                        prices[size] = base.prices[b];
+                        ids[size++] = base.ids[b];
+                    }
+                    b++;
+                } else {
+                    prices[size] = added.prices[a];
+                    ids[size++] = added.ids[a];
+                    a++;
+                }
+            }
+            return size == capacity ? new Entries(prices, ids)
+                    : new Entries(Arrays.copyOf(prices, size), Arrays.copyOf(ids, size));
+        }
+    }
+
+    /**
+     * Couples (prix, id) triés, immuables.
+     */
+    private static final class Entries {
+
+        static final Entries EMPTY = new Entries(new long[0], new long[0]);
+
+        final long[] prices;
+        final long[] ids;
+
+        Entries(long[] prices, long[] ids) {
+            this.prices = prices;
+            this.ids = ids;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // Première position dont le prix est >= cents
+        int lowerBound(long cents) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] < cents) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Première position dont le prix est > cents
+        int upperBound(long cents) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] <= cents) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Position du couple, ou -(point d'insertion) - 1 s'il est absent
+        int indexOf(long price, long id) {
+            int low = 0;
+            int high = ids.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int comparison = compare(prices[mid], ids[mid], price, id);
+                if (comparison < 0) {
+                    low = mid + 1;
+                } else if (comparison > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        boolean contains(long price, long id) {
+            return indexOf(price, id) >= 0;
+        }
+
+        Entries with(long price, long id) {
+            int at = -indexOf(price, id) - 1;
+            long[] newPrices = new long[prices.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            System.arraycopy(prices, 0, newPrices, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            newPrices[at] = price;
+            newIds[at] = id;
+            System.arraycopy(prices, at, newPrices, at + 1, prices.length - at);
+            System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+            return new Entries(newPrices, newIds);
+        }
+
+        Entries without(long price, long id) {
+            int at = indexOf(price, id);
+            long[] newPrices = new long[prices.length - 1];
+            long[] newIds = new long[ids.length - 1];
+            System.arraycopy(prices, 0, newPrices, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            System.arraycopy(prices, at + 1, newPrices, at, prices.length - at - 1);
+            System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+            return new Entries(newPrices, newIds);
+        }
+    }
+}
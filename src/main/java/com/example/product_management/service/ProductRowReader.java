@@ -0,0 +1,261 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductImportFormat;
+import com.example.product_management.dto.ProductRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lecture incrémentale d'un fichier d'import, une ligne produit à la fois : la mémoire utilisée
+ * ne dépend pas de la taille du fichier. Une ligne illisible (champ non numérique, JSON mal formé)
+ * est renvoyée avec son erreur sans interrompre la lecture ; seule une erreur de structure
+ * (en-tête CSV incomplet, tableau JSON corrompu) interrompt l'import.
+ */
+abstract class ProductRowReader implements Closeable {
+
+    /**
+     * Ligne lue : {@code error} est renseignée si la ligne n'a pas pu être convertie ou validée.
+     */
+    record Row(long line, ProductRequest request, String error) {
+
+        Row rejected(String error) {
+            return new Row(line, request, error);
+        }
+
+        String name() {
+            return request == null ? null : request.getName();
+        }
+    }
+
+    static ProductRowReader open(Path file, ProductImportFormat format, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+            case NDJSON -> new Ndjson(Files.newBufferedReader(file, StandardCharsets.UTF_8),
+                    objectMapper.readerFor(ProductRequest.class));
+            case JSON -> new JsonArray(objectMapper.readerFor(ProductRequest.class).readValues(file.toFile()));
+        };
+    }
+
+    /**
+     * @return la ligne suivante, ou null en fin de fichier
+     */
+    abstract Row next() throws IOException;
+
+    static class Csv extends ProductRowReader {
+
+        private static final List<String> COLUMNS = List.of("name", "description", "price", "quantity", "category");
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line = 1;
+        // Dernier enregistrement lu terminé par la fin du fichier à l'intérieur d'un champ entre guillemets
+        private boolean unterminated;
+
+        Csv(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (columns.isEmpty()) {
+                readHeader();
+            }
+            List<String> record;
+            long start;
+            do {
+                start = line;
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank() && !unterminated);
+
+            if (unterminated) {
+                return new Row(start, null, "Unterminated quoted field");
+            }
+            ProductRequest request = ProductRequest.builder()
+                    .name(field(record, "name"))
+                    .description(field(record, "description"))
+                    .category(field(record, "category"))
+                    .build();
+            try {
+                String price = field(record, "price");
+                request.setPrice(price == null ? null : new BigDecimal(price));
+            } catch (NumberFormatException ex) {
+                return new Row(start, request, "price: must be a decimal number");
+            }
+            try {
+                String quantity = field(record, "quantity");
+                request.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+            } catch (NumberFormatException ex) {
+                return new Row(start, request, "quantity: must be an integer");
+            }
+            return new Row(start, request, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            if (unterminated) {
+                throw new IllegalArgumentException("CSV header has an unterminated quoted field");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // BOM éventuel en tête de fichier (export Excel)
+                columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+            }
+            List<String> missing = COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV header is missing columns " + missing);
+            }
+        }
+
+        private String field(List<String> record, String column) {
+            int index = columns.get(column);
+            if (index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // RFC 4180 : champs entre guillemets (virgules, sauts de ligne, "" pour un guillemet). Un
+        // guillemet n'ouvre un champ cité qu'en première position ; ailleurs il est gardé tel quel (12" screen)
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean fieldStart = true;
+            boolean empty = true;
+            unterminated = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                empty = false;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (following != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && fieldStart) {
+                    quoted = true;
+                    fieldStart = false;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                    fieldStart = false;
+                }
+            }
+            if (empty) {
+                return null;
+            }
+            unterminated = quoted;
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    static class Ndjson extends ProductRowReader {
+
+        private final BufferedReader reader;
+        private final ObjectReader objectReader;
+        private long line;
+
+        Ndjson(BufferedReader reader, ObjectReader objectReader) {
+            this.reader = reader;
+            this.objectReader = objectReader;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String json;
+            do {
+                json = reader.readLine();
+                line++;
+                if (json == null) {
+                    return null;
+                }
+            } while (json.isBlank());
+
+            try {
+                return new Row(line, objectReader.readValue(json), null);
+            } catch (JsonProcessingException ex) {
+                return new Row(line, null, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    static class JsonArray extends ProductRowReader {
+
+        private final MappingIterator<ProductRequest> iterator;
+
+        JsonArray(MappingIterator<ProductRequest> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        Row next() throws IOException {
+            // Après une erreur de conversion, hasNextValue() se recale sur l'objet suivant
+            if (!iterator.hasNextValue()) {
+                return null;
+            }
+            long line = iterator.getCurrentLocation().getLineNr();
+            try {
+                return new Row(line, iterator.nextValue(), null);
+            } catch (JsonMappingException ex) {
+                return new Row(line, null, "Invalid product: " + ex.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            iterator.close();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire sur le nom et la description des produits.
+ * <p>
+ * Chaque terme pointe vers les produits qui le contiennent avec un poids (un terme du nom
+ * pèse plus qu'un terme de la description). Une recherche exige que chaque mot de la requête
+ * corresponde, exactement ou en préfixe, à un terme du produit ; le score favorise les
+ * correspondances exactes. L'index est reconstruit au démarrage puis tenu à jour à partir
+ * des {@link ProductChangedEvent}.
+ * <p>
+ * Les termes et la version indexés de chaque produit sont conservés : une écriture retire ce qui
+ * a réellement été indexé, pas l'état « avant » de l'événement, et un événement d'une version
+ * antérieure ou égale (reçu dans le désordre après un commit plus récent) est ignoré, de même
+ * qu'un événement tardif sur un produit supprimé.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+    
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BOOST = 2;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<ProductChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Mode lecture seule : la recherche parcourt l'instantané, l'index reste vide
+    @EventListener(value = ApplicationReadyEvent.class, condition = "!@productSnapshotStore.isServing()")
+    public void rebuild() {
+        log.info("Rebuilding product search index");
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Index fresh = new Index();
+        try {
+            productRepository.forEachPage(REBUILD_PAGE_SIZE, page -> page.forEach(product ->
+                    fresh.apply(ProductChangedEvent.created(productMapper.toResponse(product)))));
+        } catch (RuntimeException ex) {
+            // La recherche reste servie par la requête SQL tant que l'index n'est pas prêt
+            log.error("Product search index rebuild failed, falling back to database search", ex);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            // Rejouer les écritures arrivées pendant le parcours : sans effet si la version est déjà lue
+            pendingDuringRebuild.forEach(fresh::apply);
+            pendingDuringRebuild = null;
+            index = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index rebuilt: {} products, {} terms", fresh.byProduct.size(), fresh.postings.size());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            index.apply(event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Renvoie au plus {@code limit} ids de produits, du plus pertinent au moins pertinent.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Integer> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (Map.Entry<String, Map<Long, Integer>> entry
+                        : index.postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                    int boost = entry.getKey().equals(queryTerm) ? EXACT_MATCH_BOOST : 1;
+                    entry.getValue().forEach((id, weight) -> termScores.merge(id, weight * boost, Integer::sum));
+                }
+                
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Tous les mots de la requête doivent correspondre
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private static Map<String, Integer> termWeights(ProductResponse product) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        return weights;
+    }
+    
+    /**
+     * Termes et version réellement indexés pour un produit.
+     */
+    private record Indexed(long version, Map<String, Integer> terms) {
+    }
+    
+    /**
+     * Postings et état indexé de chaque produit. Accès sous le verrou de {@link ProductSearchIndex}.
+     */
+    private static final class Index {
+        
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Indexed> byProduct = new HashMap<>();
+        private final RecentProductVersions deleted = new RecentProductVersions();
+        
+        void apply(ProductChangedEvent event) {
+            Long id = event.productId();
+            if (deleted.isDeleted(id)) {
+                return;
+            }
+            Indexed current = byProduct.get(id);
+            ProductResponse after = event.after();
+            if (after == null) {
+                deleted.put(id, RecentProductVersions.DELETED);
+                if (current != null) {
+                    byProduct.remove(id);
+                    remove(id, current.terms());
+                }
+                return;
+            }
+            long version = after.getVersion() == null ? 0 : after.getVersion();
+            if (current != null && version <= current.version()) {
+                return;
+            }
+            if (current != null) {
+                remove(id, current.terms());
+            }
+            Map<String, Integer> terms = termWeights(after);
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(id, weight));
+            byProduct.put(id, new Indexed(version, terms));
+        }
+        
+        private void remove(Long id, Map<String, Integer> terms) {
+            for (String term : terms.keySet()) {
+                Map<Long, Integer> ids = postings.get(term);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+}
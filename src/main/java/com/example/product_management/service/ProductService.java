@@ -1,27 +1,88 @@
 package com.example.product_management.service;
 
+import com.example.product_management.datasource.ReadYourWrites;
+import com.example.product_management.dto.CatalogVersion;
+import com.example.product_management.dto.CategoryFacet;
+import com.example.product_management.dto.CursorPage;
+import com.example.product_management.dto.ProductCursor;
+import com.example.product_management.dto.ProductFields;
+import com.example.product_management.dto.ProductPatchRequest;
 import com.example.product_management.dto.ProductRequest;
 import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.ProductVersion;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.exception.BadRequestException;
+import com.example.product_management.exception.PreconditionFailedException;
 import com.example.product_management.exception.ResourceNotFoundException;
 import com.example.product_management.exception.ValidationException;
+import com.example.product_management.mapper.ProductMapper;
 import com.example.product_management.model.Product;
 import com.example.product_management.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "product.service", description = "ProductService method latency", histogram = true)
 public class ProductService {
     
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    
     private final ProductRepository productRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final LowStockTracker lowStockTracker;
+    private final CategoryFacetRollups categoryFacetRollups;
+    private final MeterRegistry meterRegistry;
+    private final ProductSnapshotStore productSnapshotStore;
+    private final ProductPriceIndex productPriceIndex;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final ProductChangeFeed productChangeFeed;
+    
+    @Value("${product.search.max-results:100}")
+    private int maxSearchResults = 100;
+    
+    @Value("${product.single-flight.max-wait-ms:2000}")
+    private long singleFlightMaxWaitMs = 2000;
+    
+    // Lectures concurrentes identiques regroupées en un seul chargement
+    private SingleFlight<Long, ProductResponse> productLoads;
+    private SingleFlight<String, List<ProductResponse>> categoryLoads;
+    
+    @PostConstruct
+    void initSingleFlight() {
+        productLoads = new SingleFlight<>("product", singleFlightMaxWaitMs, meterRegistry);
+        categoryLoads = new SingleFlight<>("category", singleFlightMaxWaitMs, meterRegistry);
+    }
     
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
@@ -34,40 +95,191 @@ public class ProductService {
                 });
         
         // Mapper la requête vers l'entité
-        Product product = modelMapper.map(request, Product.class);
+        Product product = productMapper.toEntity(request);
         
         // Sauvegarder le produit
         Product savedProduct = productRepository.save(product);
         log.info("Product created with ID: {}", savedProduct.getId());
         
-        return modelMapper.map(savedProduct, ProductResponse.class);
+        ProductResponse response = productMapper.toResponse(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.created(response));
+        return response;
     }
     
-    @Transactional(readOnly = true)
+    // Pas de transaction autour du regroupement : un appelant en attente ne doit pas tenir de
+    // connexion. La lecture unique du meneur s'exécute dans la transaction du repository.
     public ProductResponse getProductById(Long id) {
         log.debug("Fetching product with ID: {}", id);
         
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        // Mode lecture seule : l'instantané mappé remplace la base
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        }
         
-        return modelMapper.map(product, ProductResponse.class);
+        ProductResponse cached = productCacheInvalidator.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        // Seul le meneur met en cache, sous contrôle de génération (voir ProductCacheInvalidator).
+        // Lu sur la primaire : un réplica en retard figerait une valeur périmée dans le cache
+        return productLoads.execute(id, () -> {
+            long generation = productCacheInvalidator.generation(id);
+            ProductResponse product = ReadYourWrites.onPrimary(() -> productMapper.toResponse(productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id))));
+            productCacheInvalidator.cacheIfUnchanged(product, generation);
+            return product;
+        });
     }
     
+    // Écriture validée : les lectures suivantes ne rejoignent pas un chargement commencé avant
+    // elle, dont le résultat périmé serait renvoyé puis mis en cache
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productLoads.invalidate(event.productId());
+    }
+    
+    /**
+     * Version et date de dernière modification d'un produit, lues sans charger l'entité ;
+     * vide si le produit n'existe pas.
+     */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        log.debug("Fetching all products");
-        
-        return productRepository.findAll().stream()
-                .map(product -> modelMapper.map(product, ProductResponse.class))
+    public Optional<ProductVersion> getProductVersion(Long id) {
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().findVersionById(id);
+        }
+        return productRepository.findVersionById(id);
+    }
+    
+    /**
+     * Version agrégée du catalogue ou d'une catégorie ; vide si la collection est vide. Le
+     * catalogue entier suit la séquence du flux des changements (aucune requête) ; une catégorie
+     * est agrégée sur l'index (category, updated_at).
+     */
+    public Optional<CatalogVersion> getCatalogVersion(String category) {
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().version(category);
+        }
+        OptionalLong sequence = category == null ? productChangeFeed.lastSequence() : OptionalLong.empty();
+        if (sequence.isPresent()) {
+            return Optional.of(CatalogVersion.ofSequence(sequence.getAsLong()));
+        }
+        CatalogVersion version = category == null
+                ? productRepository.findCatalogVersion()
+                : productRepository.findCategoryVersion(category);
+        return version.getCount() == 0 ? Optional.empty() : Optional.of(version);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> getProductsPage(String cursor, Integer size, String category, ProductFields fields) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        log.debug("Fetching products page after {} (size {}, category {})", after, pageSize, category);
+        if (category != null && after != null && after.price() == null) {
+            throw new BadRequestException("Cursor does not belong to a category listing");
+        }
+        if (category == null && after != null && after.price() != null) {
+            throw new BadRequestException("Cursor belongs to a category listing");
+        }
+
+        // On lit une ligne de plus pour savoir s'il existe une page suivante
+        List<ProductResponse> products;
+        if (productSnapshotStore.isServing()) {
+            products = findSnapshotPage(category, after, pageSize + 1, fields);
+        } else {
+            products = fields == null
+                    ? findPage(category, after, pageSize + 1)
+                    : findPageFields(category, after, pageSize + 1, fields);
+        }
+
+        boolean hasNext = products.size() > pageSize;
+        List<ProductResponse> items = hasNext ? products.subList(0, pageSize) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            ProductResponse last = items.get(items.size() - 1);
+            nextCursor = (category == null
+                    ? ProductCursor.of(last.getId())
+                    : ProductCursor.of(last.getPrice(), last.getId())).encode();
+        }
+        if (fields != null && !fields.contains("price")) {
+            // Le prix n'a été lu que pour le curseur
+            items.forEach(item -> item.setPrice(null));
+        }
+
+        return CursorPage.<ProductResponse>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(items.size())
+                .build();
+    }
+
+    private List<ProductResponse> findPage(String category, ProductCursor after, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        List<Product> products;
+        if (category == null) {
+            products = after == null
+                    ? productRepository.findAllByOrderByIdAsc(pageable)
+                    : productRepository.findPageAfter(after.id(), pageable);
+        } else {
+            products = after == null
+                    ? productRepository.findByCategoryOrderByPriceAscIdAsc(category, pageable)
+                    : productRepository.findCategoryPageAfter(category, after.price(), after.id(), pageable);
+        }
+        return products.stream()
+                .map(productMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Même parcours keyset dans l'instantané : le prix est toujours décodé pour le curseur de catégorie
+    private List<ProductResponse> findSnapshotPage(String category, ProductCursor after, int limit, ProductFields fields) {
+        ProductSnapshot snapshot = productSnapshotStore.current();
+        if (category == null) {
+            return snapshot.findPage(after == null ? null : after.id(), limit, fields);
+        }
+        ProductFields selected = fields == null ? null : new ProductFields(fields.with("price"));
+        return after == null
+                ? snapshot.findCategoryPage(category, null, null, limit, selected)
+                : snapshot.findCategoryPage(category, after.price(), after.id(), limit, selected);
+    }
+
+    // Même parcours keyset que findPage, en ne lisant que les colonnes demandées (plus les clés du curseur)
+    private List<ProductResponse> findPageFields(String category, ProductCursor after, int limit, ProductFields fields) {
+        Specification<Product> where = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (category != null) {
+                predicates.add(cb.equal(root.get("category"), category));
+            }
+            if (after != null && category == null) {
+                predicates.add(cb.greaterThan(root.<Long>get("id"), after.id()));
+            } else if (after != null) {
+                predicates.add(cb.or(
+                        cb.greaterThan(root.<BigDecimal>get("price"), after.price()),
+                        cb.and(cb.equal(root.get("price"), after.price()),
+                                cb.greaterThan(root.<Long>get("id"), after.id()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        Sort sort = category == null ? Sort.by("id") : Sort.by("price", "id");
+        Set<String> selected = category == null ? fields.names() : fields.with("price");
+        return productRepository.findFields(selected, where, sort, limit).stream()
+                .map(productMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Remplace tous les champs du produit.
+     *
+     * @param expectedVersion version annoncée par If-Match, null pour ne pas la vérifier ; une
+     *                        écriture concurrente entre la lecture et le flush échoue de toute façon
+     */
     @Transactional
-    public ProductResponse updateProduct(Long id, ProductRequest request) {
+    public ProductResponse updateProduct(Long id, ProductRequest request, Long expectedVersion) {
         log.info("Updating product with ID: {}", id);
         
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        checkVersion(product, expectedVersion);
         
         // Vérifier si le nouveau nom entre en conflit avec un produit existant
         if (!product.getName().equals(request.getName())) {
@@ -78,49 +290,216 @@ public class ProductService {
         }
         
         // Mettre à jour le produit
-        modelMapper.map(request, product);
-        Product updatedProduct = productRepository.save(product);
+        ProductResponse before = productMapper.toResponse(product);
+        productMapper.updateEntity(request, product);
+        // Flush explicite : la version incrémentée figure dans la réponse (ETag)
+        Product updatedProduct = productRepository.saveAndFlush(product);
         log.info("Product updated with ID: {}", updatedProduct.getId());
         
-        return modelMapper.map(updatedProduct, ProductResponse.class);
+        ProductResponse response = productMapper.toResponse(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, response));
+        return response;
+    }
+    
+    /**
+     * Modifie uniquement les champs renseignés. Avec {@code @DynamicUpdate}, l'UPDATE ne porte que
+     * sur les colonnes qui changent (plus version et updated_at) ; sans changement, aucune écriture.
+     */
+    @Transactional
+    public ProductResponse patchProduct(Long id, ProductPatchRequest patch, Long expectedVersion) {
+        log.info("Patching product with ID: {}", id);
+        
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        checkVersion(product, expectedVersion);
+        
+        if (patch.getName() != null && !product.getName().equals(patch.getName())) {
+            productRepository.findByName(patch.getName())
+                    .ifPresent(p -> {
+                        throw new ValidationException("Product with name '" + patch.getName() + "' already exists");
+                    });
+        }
+        
+        ProductResponse before = productMapper.toResponse(product);
+        productMapper.patchEntity(patch, product);
+        Product patchedProduct = productRepository.saveAndFlush(product);
+        
+        ProductResponse response = productMapper.toResponse(patchedProduct);
+        if (!response.getVersion().equals(before.getVersion())) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before, response));
+        }
+        return response;
+    }
+    
+    // If-Match : refus (412) si le client n'a pas lu la dernière version
+    private static void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException("Product " + product.getId() + " is at version "
+                    + product.getVersion() + ", request was based on version " + expectedVersion);
+        }
     }
     
     @Transactional
     public void deleteProduct(Long id) {
         log.info("Deleting product with ID: {}", id);
         
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product not found with id: " + id);
-        }
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         
-        productRepository.deleteById(id);
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productMapper.toResponse(product)));
         log.info("Product deleted with ID: {}", id);
     }
     
-    @Transactional(readOnly = true)
-    public List<ProductResponse> getProductsByCategory(String category) {
+    // Même principe que getProductById : regroupement hors transaction
+    public List<ProductResponse> getProductsByCategory(String category, ProductFields fields) {
         log.debug("Fetching products by category: {}", category);
         
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().findByCategory(category, fields);
+        }
+        
+        String key = fields == null ? category : category + "?fields=" + String.join(",", fields.names());
+        // Un appel épinglé sur la primaire ne partage pas une lecture faite sur un réplica
+        if (ReadYourWrites.isPinned()) {
+            key = "primary:" + key;
+        }
+        return categoryLoads.execute(key, () -> loadProductsByCategory(category, fields));
+    }
+    
+    private List<ProductResponse> loadProductsByCategory(String category, ProductFields fields) {
+        if (fields != null) {
+            Specification<Product> inCategory = (root, query, cb) -> cb.equal(root.get("category"), category);
+            return productRepository.findFields(fields.names(), inCategory, Sort.unsorted(), 0).stream()
+                    .map(productMapper::toResponse)
+                    .collect(Collectors.toList());
+        }
         return productRepository.findByCategory(category).stream()
-                .map(product -> modelMapper.map(product, ProductResponse.class))
+                .map(productMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        log.debug("Fetching products with price between {} and {}", minPrice, maxPrice);
+        
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must be lower than or equal to maxPrice");
+        }
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().findByPriceBetween(minPrice, maxPrice);
+        }
+        // Ids par recherche dichotomique dans l'index des prix, produits lus dans le cache
+        if (productPriceIndex.isReady()) {
+            return hydrate(productPriceIndex.findIdsBetween(minPrice, maxPrice), minPrice, maxPrice);
+        }
+        return productRepository.findByPriceBetween(minPrice, maxPrice).stream()
+                .map(productMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+    
+    // Produits dans l'ordre des ids : cache d'abord, les absents en une seule requête. Ceux-ci ne
+    // sont pas mis en cache, ils peuvent venir d'un réplica en retard (voir getProductById).
+    // Le prix est revérifié sur le produit chargé : l'index peut être en avance ou en retard sur lui.
+    private List<ProductResponse> hydrate(long[] ids, BigDecimal minPrice, BigDecimal maxPrice) {
+        ProductResponse[] products = new ProductResponse[ids.length];
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            products[i] = productCacheInvalidator.get(ids[i]);
+            if (products[i] == null) {
+                missing.add(ids[i]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, ProductResponse> loaded = productRepository.findAllById(missing).stream()
+                    .map(productMapper::toResponse)
+                    .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+            for (int i = 0; i < ids.length; i++) {
+                if (products[i] == null) {
+                    products[i] = loaded.get(ids[i]);
+                }
+            }
+        }
+        // Un produit supprimé ou sorti de la fourchette entre la lecture de l'index et le chargement est ignoré
+        List<ProductResponse> result = new ArrayList<>(ids.length);
+        for (ProductResponse product : products) {
+            if (product != null
+                    && product.getPrice().compareTo(minPrice) >= 0 && product.getPrice().compareTo(maxPrice) <= 0) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+    
     @Transactional(readOnly = true)
     public List<ProductResponse> getLowStockProducts(Integer threshold) {
         log.debug("Fetching low stock products with threshold: {}", threshold);
         
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().findBelowQuantity(threshold);
+        }
+        // Réponse depuis le suivi en mémoire, la base n'est interrogée qu'au-delà des quantités suivies
+        if (lowStockTracker.covers(threshold)) {
+            return lowStockTracker.findBelow(threshold);
+        }
         return productRepository.findLowStockProducts(threshold).stream()
-                .map(product -> modelMapper.map(product, ProductResponse.class))
+                .map(productMapper::toResponse)
                 .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
-    public List<ProductResponse> searchProducts(String keyword) {
+    public List<CategoryFacet> getCategoryFacets() {
+        log.debug("Fetching category facets");
+        
+        if (productSnapshotStore.isServing()) {
+            return CategoryFacetRollups.aggregate(productSnapshotStore.current().categoryPriceBuckets());
+        }
+        // Agrégats tenus en mémoire ; GROUP BY en base seulement s'ils ne sont pas encore prêts
+        if (categoryFacetRollups.isReady()) {
+            return categoryFacetRollups.facets();
+        }
+        return CategoryFacetRollups.aggregate(productRepository.findCategoryPriceBuckets());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProducts(String keyword, ProductFields fields) {
         log.debug("Searching products with keyword: {}", keyword);
         
-        return productRepository.searchProducts(keyword).stream()
-                .map(product -> modelMapper.map(product, ProductResponse.class))
+        if (productSnapshotStore.isServing()) {
+            return productSnapshotStore.current().search(keyword, maxSearchResults, fields);
+        }
+        if (!productSearchIndex.isReady()) {
+            if (fields != null) {
+                return productRepository.findFields(fields.names(), keywordMatches(keyword), Sort.unsorted(), 0).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toList());
+            }
+            return productRepository.searchProducts(keyword).stream()
+                    .map(productMapper::toResponse)
+                    .collect(Collectors.toList());
+        }
+        
+        // L'index donne les ids par pertinence, on charge les produits en une requête puis on rétablit l'ordre
+        List<Long> ids = productSearchIndex.search(keyword, maxSearchResults);
+        List<ProductResponse> found = fields == null
+                ? productRepository.findAllById(ids).stream().map(productMapper::toResponse).toList()
+                : productRepository.findFields(fields.names(), (root, query, cb) -> root.get("id").in(ids), Sort.unsorted(), 0)
+                        .stream().map(productMapper::toResponse).toList();
+        Map<Long, ProductResponse> products = found.stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
+    
+    // Équivalent de la requête searchProducts du repository, pour les projections
+    private static Specification<Product> keywordMatches(String keyword) {
+        return (root, query, cb) -> {
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.<String>get("name")), pattern),
+                    cb.like(cb.lower(root.<String>get("description")), pattern));
+        };
+    }
 }
\ No newline at end of file
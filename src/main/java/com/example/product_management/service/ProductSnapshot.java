@@ -0,0 +1,659 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.CatalogVersion;
+import com.example.product_management.dto.CategoryPriceBucket;
+import com.example.product_management.dto.ProductFields;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.ProductVersion;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané binaire en lecture seule de la table products, lu par mapping mémoire.
+ * <p>
+ * Disposition du fichier (petit-boutiste, décalages en octets depuis le début du fichier) :
+ * <pre>
+ * en-tête        64 o   magic, version, n produits, m catégories, date, dernière modif., CRC32
+ * index des ids  8 n    ids triés : l'enregistrement i porte l'id i (id -> décalage par recherche dichotomique)
+ * enregistrements 64 n  id, prix en centimes, quantité, 3 références (décalage, longueur) vers le
+ *                       pool de chaînes, version (verrou optimiste), dates de création et de
+ *                       modification (microsecondes)
+ * index des prix 12 n   prix triés (8 n) puis numéros d'enregistrement correspondants (4 n)
+ * catégories     16 m   référence du nom, début et nombre d'entrées dans la liste suivante
+ *                4 n    numéros d'enregistrement triés par (catégorie, prix, id)
+ * chaînes               UTF-8, sans séparateur
+ * </pre>
+ * Les lectures utilisent les accès absolus du tampon mappé : aucune copie du jeu de données sur le
+ * tas, seuls les champs renvoyés sont décodés. Le fichier est limité à 2 Go (un seul mapping).
+ */
+public final class ProductSnapshot {
+
+    private static final long MAGIC = 0x50524f44534e4150L; // "PRODSNAP"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 64;
+    private static final int CATEGORY_ENTRY_SIZE = 16;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    // Champs d'un enregistrement
+    private static final int ID = 0;
+    private static final int PRICE = 8;
+    private static final int QUANTITY = 16;
+    private static final int NAME = 20;
+    private static final int DESCRIPTION = 28;
+    private static final int CATEGORY = 36;
+    private static final int ROW_VERSION = 44;
+    private static final int CREATED_AT = 48;
+    private static final int UPDATED_AT = 56;
+
+    /**
+     * Instantané sans produit, servi tant qu'aucun fichier n'a été chargé.
+     */
+    public static final ProductSnapshot EMPTY = new ProductSnapshot(new Builder().build());
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int idsOffset;
+    private final int recordsOffset;
+    private final int priceKeysOffset;
+    private final int priceRecordsOffset;
+    private final int categoryRecordsOffset;
+    private final int stringsOffset;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime lastModified;
+    // Catégorie normalisée -> {début, nombre, position de l'entrée} : m entrées seulement
+    private final Map<String, int[]> categories;
+
+    private ProductSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a product snapshot file");
+        }
+        if (buffer.getInt(8) != VERSION) {
+            throw new IllegalArgumentException("Unsupported product snapshot version " + buffer.getInt(8));
+        }
+        count = buffer.getInt(12);
+        int categoryCount = buffer.getInt(16);
+        createdAt = toDateTime(buffer.getLong(24) * 1000);
+        lastModified = toDateTime(buffer.getLong(32));
+
+        idsOffset = HEADER_SIZE;
+        recordsOffset = idsOffset + 8 * count;
+        priceKeysOffset = recordsOffset + RECORD_SIZE * count;
+        priceRecordsOffset = priceKeysOffset + 8 * count;
+        int categoriesOffset = priceRecordsOffset + 4 * count;
+        categoryRecordsOffset = categoriesOffset + CATEGORY_ENTRY_SIZE * categoryCount;
+        stringsOffset = categoryRecordsOffset + 4 * count;
+        if (stringsOffset != buffer.getLong(40) || stringsOffset + buffer.getLong(48) != buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated or inconsistent product snapshot");
+        }
+        if (crc(buffer) != buffer.getLong(56)) {
+            throw new IllegalArgumentException("Product snapshot checksum mismatch");
+        }
+
+        categories = new HashMap<>(categoryCount * 2);
+        for (int i = 0; i < categoryCount; i++) {
+            int entry = categoriesOffset + i * CATEGORY_ENTRY_SIZE;
+            categories.put(normalize(string(entry)), new int[]{buffer.getInt(entry + 8), buffer.getInt(entry + 12), entry});
+        }
+    }
+
+    /**
+     * Mappe un instantané en mémoire après en avoir vérifié l'en-tête et la somme de contrôle.
+     */
+    public static ProductSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Product snapshot larger than 2 GB: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ProductSnapshot(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Écrit un instantané dans {@code target} : fichier temporaire du même répertoire, synchronisé
+     * sur disque puis renommé atomiquement. Un lecteur voit l'ancien ou le nouveau fichier, jamais
+     * un fichier partiel. Les produits doivent arriver par id croissant.
+     *
+     * @return nombre de produits écrits
+     */
+    public static int write(Iterator<ProductResponse> productsById, Path target) throws IOException {
+        Builder builder = new Builder();
+        productsById.forEachRemaining(builder::add);
+        ByteBuffer content = builder.build();
+
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return builder.size();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public LocalDateTime createdAt() {
+        return createdAt;
+    }
+
+    public Optional<ProductResponse> findById(long id) {
+        int index = indexOf(id);
+        return index < 0 ? Optional.empty() : Optional.of(read(index, null));
+    }
+
+    public Optional<ProductVersion> findVersionById(long id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        int record = record(index);
+        return Optional.of(new ProductVersion(rowVersion(record), toDateTime(buffer.getLong(record + UPDATED_AT))));
+    }
+
+    /**
+     * Produits de la catégorie (comparaison sans casse, comme la collation MySQL) par prix puis id ;
+     * seuls les champs de {@code fields} sont décodés (tous si null).
+     */
+    public List<ProductResponse> findByCategory(String category, ProductFields fields) {
+        int[] range = categories.get(normalize(category));
+        if (range == null) {
+            return List.of();
+        }
+        List<ProductResponse> products = new ArrayList<>(range[1]);
+        for (int i = range[0]; i < range[0] + range[1]; i++) {
+            products.add(read(buffer.getInt(categoryRecordsOffset + 4 * i), fields));
+        }
+        return products;
+    }
+
+    /**
+     * Produits dont le prix est compris entre {@code min} et {@code max} inclus, par prix croissant.
+     */
+    public List<ProductResponse> findByPriceBetween(BigDecimal min, BigDecimal max) {
+        // Bornes ramenées au centime intérieur : 9.995 inclut 10.00 mais pas 9.99
+        int from = lowerBound(ProductPriceIndex.toCents(min, RoundingMode.CEILING));
+        int to = lowerBound(ProductPriceIndex.toCents(max, RoundingMode.FLOOR) + 1);
+        List<ProductResponse> products = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            products.add(read(buffer.getInt(priceRecordsOffset + 4 * i), null));
+        }
+        return products;
+    }
+
+    /**
+     * Page keyset du catalogue par id croissant : au plus {@code limit} produits d'id supérieur à
+     * {@code afterId} (depuis le début si null).
+     */
+    public List<ProductResponse> findPage(Long afterId, int limit, ProductFields fields) {
+        int from = afterId == null ? 0 : upperBound(afterId);
+        int to = (int) Math.min(count, (long) from + limit);
+        List<ProductResponse> products = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            products.add(read(i, fields));
+        }
+        return products;
+    }
+
+    /**
+     * Page keyset d'une catégorie par (prix, id) : au plus {@code limit} produits situés après
+     * ({@code afterPrice}, {@code afterId}), depuis le début de la catégorie si le curseur est null.
+     */
+    public List<ProductResponse> findCategoryPage(String category, BigDecimal afterPrice, Long afterId,
+                                                  int limit, ProductFields fields) {
+        int[] range = categories.get(normalize(category));
+        if (range == null) {
+            return List.of();
+        }
+        int end = range[0] + range[1];
+        int from = range[0];
+        if (afterPrice != null) {
+            // Première position strictement après le curseur, par recherche dichotomique dans la catégorie
+            int high = end;
+            while (from < high) {
+                int mid = (from + high) >>> 1;
+                int record = record(buffer.getInt(categoryRecordsOffset + 4 * mid));
+                int byPrice = BigDecimal.valueOf(buffer.getLong(record + PRICE), 2).compareTo(afterPrice);
+                if (byPrice < 0 || byPrice == 0 && buffer.getLong(record + ID) <= afterId) {
+                    from = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+        }
+        int to = (int) Math.min(end, (long) from + limit);
+        List<ProductResponse> products = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            products.add(read(buffer.getInt(categoryRecordsOffset + 4 * i), fields));
+        }
+        return products;
+    }
+
+    /**
+     * Produits dont la quantité est strictement inférieure à {@code threshold}, par quantité puis id.
+     * Parcours complet des enregistrements : seuls les produits retenus sont décodés.
+     */
+    public List<ProductResponse> findBelowQuantity(int threshold) {
+        List<ProductResponse> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (buffer.getInt(record(i) + QUANTITY) < threshold) {
+                products.add(read(i, null));
+            }
+        }
+        products.sort(Comparator.comparing(ProductResponse::getQuantity).thenComparing(ProductResponse::getId));
+        return products;
+    }
+
+    /**
+     * Produits dont le nom ou la description contient {@code keyword} (sans casse, comme le LIKE
+     * de ProductRepository#searchProducts), par id croissant, au plus {@code limit}. Parcours
+     * complet : pas d'index plein texte dans l'instantané.
+     */
+    public List<ProductResponse> search(String keyword, int limit, ProductFields fields) {
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        List<ProductResponse> products = new ArrayList<>();
+        for (int i = 0; i < count && products.size() < limit; i++) {
+            int record = record(i);
+            if (contains(string(record + NAME), needle) || contains(string(record + DESCRIPTION), needle)) {
+                products.add(read(i, fields));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Agrégat par (catégorie, prix), équivalent de ProductRepository#findCategoryPriceBuckets :
+     * les catégories étant triées par prix, chaque prix distinct forme une suite contiguë.
+     */
+    public List<CategoryPriceBucket> categoryPriceBuckets() {
+        List<CategoryPriceBucket> buckets = new ArrayList<>();
+        for (int[] range : categories.values()) {
+            String category = string(range[2]);
+            CategoryPriceBucket bucket = null;
+            long bucketCents = 0;
+            for (int i = range[0]; i < range[0] + range[1]; i++) {
+                int record = record(buffer.getInt(categoryRecordsOffset + 4 * i));
+                long cents = buffer.getLong(record + PRICE);
+                if (bucket == null || cents != bucketCents) {
+                    bucket = new CategoryPriceBucket(category, BigDecimal.valueOf(cents, 2), 0L, 0L);
+                    bucketCents = cents;
+                    buckets.add(bucket);
+                }
+                bucket.setCount(bucket.getCount() + 1);
+                bucket.setTotalQuantity(bucket.getTotalQuantity() + buffer.getInt(record + QUANTITY));
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Tous les produits par id croissant, décodés un à un au fil du parcours.
+     */
+    public Iterator<ProductResponse> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public ProductResponse next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                return read(next++, null);
+            }
+        };
+    }
+
+    /**
+     * Version du catalogue (category null) ou d'une catégorie, vide si elle ne contient aucun produit.
+     */
+    public Optional<CatalogVersion> version(String category) {
+        if (category == null) {
+            return count == 0 ? Optional.empty() : Optional.of(new CatalogVersion((long) count, lastModified));
+        }
+        int[] range = categories.get(normalize(category));
+        if (range == null) {
+            return Optional.empty();
+        }
+        long latest = NULL_TIMESTAMP;
+        for (int i = range[0]; i < range[0] + range[1]; i++) {
+            latest = Math.max(latest, buffer.getLong(record(buffer.getInt(categoryRecordsOffset + 4 * i)) + UPDATED_AT));
+        }
+        return Optional.of(new CatalogVersion((long) range[1], toDateTime(latest)));
+    }
+
+    private int indexOf(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = buffer.getLong(idsOffset + 8 * mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Première position de l'index des ids dont l'id est > id
+    private int upperBound(long id) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(idsOffset + 8 * mid) <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Première position de l'index des prix dont le prix est >= cents
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(priceKeysOffset + 8 * mid) < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int record(int index) {
+        return recordsOffset + RECORD_SIZE * index;
+    }
+
+    private ProductResponse read(int index, ProductFields fields) {
+        int record = record(index);
+        ProductResponse product = new ProductResponse();
+        product.setId(buffer.getLong(record + ID));
+        if (fields == null || fields.contains("name")) {
+            product.setName(string(record + NAME));
+        }
+        if (fields == null || fields.contains("description")) {
+            product.setDescription(string(record + DESCRIPTION));
+        }
+        if (fields == null || fields.contains("price")) {
+            product.setPrice(BigDecimal.valueOf(buffer.getLong(record + PRICE), 2));
+        }
+        if (fields == null || fields.contains("quantity")) {
+            product.setQuantity(buffer.getInt(record + QUANTITY));
+        }
+        if (fields == null || fields.contains("category")) {
+            product.setCategory(string(record + CATEGORY));
+        }
+        if (fields == null || fields.contains("createdAt")) {
+            product.setCreatedAt(toDateTime(buffer.getLong(record + CREATED_AT)));
+        }
+        if (fields == null || fields.contains("updatedAt")) {
+            product.setUpdatedAt(toDateTime(buffer.getLong(record + UPDATED_AT)));
+        }
+        if (fields == null || fields.contains("version")) {
+            product.setVersion(rowVersion(record));
+        }
+        return product;
+    }
+
+    private Long rowVersion(int record) {
+        int version = buffer.getInt(record + ROW_VERSION);
+        return version < 0 ? null : (long) version;
+    }
+
+    // Référence (décalage dans le pool, longueur) à la position donnée ; longueur -1 pour null
+    private String string(int reference) {
+        int length = buffer.getInt(reference + 4);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + buffer.getInt(reference), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean contains(String value, String lowerCaseNeedle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lowerCaseNeedle);
+    }
+
+    private static long crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    private static String normalize(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_TIMESTAMP;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime toDateTime(long micros) {
+        if (micros == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Accumule les produits en tableaux primitifs puis produit le contenu complet du fichier.
+     */
+    private static final class Builder {
+
+        private long[] ids = new long[1024];
+        private long[] prices = new long[1024];
+        private int[] quantities = new int[1024];
+        // Références vers le pool : 3 chaînes x (décalage, longueur) par produit
+        private int[] strings = new int[1024 * 6];
+        private long[] createdAts = new long[1024];
+        private long[] updatedAts = new long[1024];
+        private int[] versions = new int[1024];
+        private String[] categoryKeys = new String[1024];
+        private final Map<String, Integer> categoryNames = new HashMap<>();
+        private final StringPool pool = new StringPool();
+        private long maxUpdatedAt = NULL_TIMESTAMP;
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(ProductResponse product) {
+            if (size > 0 && product.getId() <= ids[size - 1]) {
+                throw new IllegalArgumentException("Products must be written in increasing id order");
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = product.getId();
+            prices[size] = product.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            quantities[size] = product.getQuantity() == null ? 0 : product.getQuantity();
+            pool.add(product.getName(), strings, size * 6);
+            pool.add(product.getDescription(), strings, size * 6 + 2);
+            // Les catégories se répètent : une seule copie de chaque nom dans le pool
+            Integer categoryOffset = categoryNames.get(product.getCategory());
+            if (categoryOffset == null) {
+                pool.add(product.getCategory(), strings, size * 6 + 4);
+                if (product.getCategory() != null) {
+                    categoryNames.put(product.getCategory(), strings[size * 6 + 4]);
+                }
+            } else {
+                strings[size * 6 + 4] = categoryOffset;
+                strings[size * 6 + 5] = product.getCategory().getBytes(StandardCharsets.UTF_8).length;
+            }
+            categoryKeys[size] = normalize(product.getCategory());
+            // Version sur 4 octets : -1 pour absente
+            versions[size] = product.getVersion() == null ? -1 : (int) Math.min(product.getVersion(), Integer.MAX_VALUE);
+            createdAts[size] = toMicros(product.getCreatedAt());
+            updatedAts[size] = toMicros(product.getUpdatedAt());
+            maxUpdatedAt = Math.max(maxUpdatedAt, updatedAts[size]);
+            size++;
+        }
+
+        ByteBuffer build() {
+            Integer[] byPrice = order(Comparator.<Integer>comparingLong(i -> prices[i]).thenComparingLong(i -> ids[i]));
+            Integer[] byCategory = order(Comparator.<Integer, String>comparing(i -> categoryKeys[i])
+                    .thenComparingLong(i -> prices[i]).thenComparingLong(i -> ids[i]));
+
+            // Catégories : première occurrence de chaque clé dans l'ordre (catégorie, prix, id)
+            List<int[]> categoryEntries = new ArrayList<>();
+            for (int position = 0; position < size; position++) {
+                int index = byCategory[position];
+                if (position == 0 || !categoryKeys[index].equals(categoryKeys[byCategory[position - 1]])) {
+                    categoryEntries.add(new int[]{strings[index * 6 + 4], strings[index * 6 + 5], position, 0});
+                }
+                categoryEntries.get(categoryEntries.size() - 1)[3]++;
+            }
+
+            long stringsOffset = HEADER_SIZE + (8L + RECORD_SIZE + 8 + 4 + 4) * size
+                    + (long) CATEGORY_ENTRY_SIZE * categoryEntries.size();
+            long total = stringsOffset + pool.length();
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Product snapshot would exceed 2 GB");
+            }
+            ByteBuffer out = ByteBuffer.allocate((int) total).order(ByteOrder.LITTLE_ENDIAN);
+
+            out.position(HEADER_SIZE);
+            for (int i = 0; i < size; i++) {
+                out.putLong(ids[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                int record = out.position();
+                out.putLong(record + ID, ids[i]);
+                out.putLong(record + PRICE, prices[i]);
+                out.putInt(record + QUANTITY, quantities[i]);
+                for (int s = 0; s < 6; s++) {
+                    out.putInt(record + NAME + 4 * s, strings[i * 6 + s]);
+                }
+                out.putInt(record + ROW_VERSION, versions[i]);
+                out.putLong(record + CREATED_AT, createdAts[i]);
+                out.putLong(record + UPDATED_AT, updatedAts[i]);
+                out.position(record + RECORD_SIZE);
+            }
+            for (Integer index : byPrice) {
+                out.putLong(prices[index]);
+            }
+            for (Integer index : byPrice) {
+                out.putInt(index);
+            }
+            for (int[] entry : categoryEntries) {
+                out.putInt(entry[0]).putInt(entry[1]).putInt(entry[2]).putInt(entry[3]);
+            }
+            for (Integer index : byCategory) {
+                out.putInt(index);
+            }
+            pool.writeTo(out);
+
+            out.putLong(0, MAGIC);
+            out.putInt(8, VERSION);
+            out.putInt(12, size);
+            out.putInt(16, categoryEntries.size());
+            out.putLong(24, System.currentTimeMillis());
+            out.putLong(32, maxUpdatedAt);
+            out.putLong(40, stringsOffset);
+            out.putLong(48, pool.length());
+            out.putLong(56, crc(out));
+            return out.clear();
+        }
+
+        private Integer[] order(Comparator<Integer> comparator) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, comparator);
+            return order;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            strings = Arrays.copyOf(strings, capacity * 6);
+            createdAts = Arrays.copyOf(createdAts, capacity);
+            updatedAts = Arrays.copyOf(updatedAts, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            categoryKeys = Arrays.copyOf(categoryKeys, capacity);
+        }
+    }
+
+    private static final class StringPool {
+
+        private byte[] bytes = new byte[64 * 1024];
+        private int length;
+
+        int length() {
+            return length;
+        }
+
+        // Ajoute la chaîne et écrit sa référence (décalage, longueur) dans references[at], references[at + 1]
+        void add(String value, int[] references, int at) {
+            if (value == null) {
+                references[at] = 0;
+                references[at + 1] = -1;
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            if (length + utf8.length > bytes.length) {
+                long capacity = Math.max((long) bytes.length * 2, (long) length + utf8.length);
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Product snapshot string pool would exceed 2 GB");
+                }
+                bytes = Arrays.copyOf(bytes, (int) capacity);
+            }
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            references[at] = length;
+            references[at + 1] = utf8.length;
+            length += utf8.length;
+        }
+
+        void writeTo(ByteBuffer out) {
+            out.put(bytes, 0, length);
+        }
+    }
+}
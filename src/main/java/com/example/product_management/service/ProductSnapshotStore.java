@@ -0,0 +1,129 @@
+package com.example.product_management.service;
+
+import com.example.product_management.config.CacheConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Instantané courant du mode lecture seule (product.snapshot.serving.enabled).
+ * <p>
+ * Le fichier est chargé au démarrage puis surveillé : quand il est remplacé (autre inode, date ou
+ * taille), la nouvelle version est mappée et vérifiée avant d'être publiée par une simple écriture
+ * volatile. Les lectures en cours terminent sur l'ancien mapping, libéré par le GC. Un fichier
+ * illisible est ignoré et l'instance continue de servir la version précédente.
+ */
+@Service
+@Slf4j
+public class ProductSnapshotStore {
+
+    private final Path path;
+    private final boolean serving;
+    private final CacheManager cacheManager;
+
+    private volatile ProductSnapshot snapshot;
+    private volatile Object loadedFileKey;
+    private volatile long loadedModifiedMillis;
+    private volatile long loadedSize;
+
+    public ProductSnapshotStore(@Value("${product.snapshot.path:data/products.snapshot}") Path path,
+                                @Value("${product.snapshot.serving.enabled:false}") boolean serving,
+                                CacheManager cacheManager,
+                                MeterRegistry meterRegistry) {
+        this.path = path;
+        this.serving = serving;
+        this.cacheManager = cacheManager;
+
+        Gauge.builder("product.snapshot.products", this, store -> store.snapshot == null ? 0 : store.snapshot.size())
+                .description("Products in the loaded read-only snapshot")
+                .register(meterRegistry);
+        Gauge.builder("product.snapshot.age", this, store -> store.snapshot == null ? 0
+                        : (System.currentTimeMillis() - store.loadedModifiedMillis) / 1000.0)
+                .description("Seconds since the loaded snapshot file was written")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        if (serving) {
+            reload();
+            if (snapshot == null) {
+                log.warn("Read-only mode enabled but no usable snapshot at {} yet, product reads will return 404", path);
+            }
+        }
+    }
+
+    /**
+     * Vrai si les lectures produit doivent être servies par l'instantané plutôt que par la base.
+     */
+    public boolean isServing() {
+        return serving;
+    }
+
+    /**
+     * Instantané courant ; en mode lecture seule, un instantané vide tant qu'aucun fichier n'a été chargé.
+     */
+    public ProductSnapshot current() {
+        ProductSnapshot current = snapshot;
+        return current != null ? current : ProductSnapshot.EMPTY;
+    }
+
+    @Scheduled(fixedDelayString = "${product.snapshot.serving.reload-interval-ms:5000}")
+    public void checkForUpdate() {
+        if (serving) {
+            reload();
+        }
+    }
+
+    /**
+     * Charge le fichier s'il a changé depuis le dernier chargement.
+     *
+     * @return vrai si une nouvelle version a été publiée
+     */
+    public synchronized boolean reload() {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return false;
+        } catch (IOException ex) {
+            log.warn("Cannot stat product snapshot {}: {}", path, ex.getMessage());
+            return false;
+        }
+        if (snapshot != null
+                && Objects.equals(attributes.fileKey(), loadedFileKey)
+                && attributes.lastModifiedTime().toMillis() == loadedModifiedMillis
+                && attributes.size() == loadedSize) {
+            return false;
+        }
+
+        try {
+            ProductSnapshot loaded = ProductSnapshot.open(path);
+            loadedFileKey = attributes.fileKey();
+            loadedModifiedMillis = attributes.lastModifiedTime().toMillis();
+            loadedSize = attributes.size();
+            snapshot = loaded;
+        } catch (IOException | RuntimeException ex) {
+            log.error("Ignoring unreadable product snapshot {}, keeping the previous version", path, ex);
+            return false;
+        }
+
+        // Les produits mis en cache proviennent de l'ancienne version
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (products != null) {
+            products.clear();
+        }
+        log.info("Loaded product snapshot {}: {} products written at {}", path, snapshot.size(), snapshot.createdAt());
+        return true;
+    }
+}
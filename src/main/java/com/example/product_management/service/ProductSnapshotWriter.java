@@ -0,0 +1,94 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Exporte la table products dans un fichier {@link ProductSnapshot}, à la demande ou
+ * périodiquement (product.snapshot.export.enabled). Le fichier est remplacé par renommage
+ * atomique : les instances en mode lecture seule qui le surveillent chargent la nouvelle version
+ * sans jamais voir un fichier partiel.
+ */
+@Service
+@Slf4j
+public class ProductSnapshotWriter {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path path;
+    private final boolean exportEnabled;
+
+    public ProductSnapshotWriter(ProductRepository productRepository,
+                                 ProductMapper productMapper,
+                                 EntityManager entityManager,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${product.snapshot.path:data/products.snapshot}") Path path,
+                                 @Value("${product.snapshot.export.enabled:false}") boolean exportEnabled) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.path = path;
+        this.exportEnabled = exportEnabled;
+    }
+
+    @Scheduled(fixedDelayString = "${product.snapshot.export.interval-ms:300000}")
+    public void scheduledExport() {
+        if (!exportEnabled) {
+            return;
+        }
+        try {
+            export();
+        } catch (RuntimeException ex) {
+            // L'instantané précédent reste en place
+            log.error("Product snapshot export to {} failed", path, ex);
+        }
+    }
+
+    /**
+     * Écrit l'instantané complet dans product.snapshot.path.
+     *
+     * @return nombre de produits exportés
+     */
+    public int export() {
+        return export(path);
+    }
+
+    public int export(Path target) {
+        long start = System.nanoTime();
+        // Curseur forward-only, entités détachées au fil de l'eau : seuls les tableaux de
+        // l'instantané en cours de construction restent en mémoire
+        Integer count = readOnlyTransaction.execute(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                return ProductSnapshot.write(products
+                        .map(product -> {
+                            ProductResponse response = productMapper.toResponse(product);
+                            entityManager.detach(product);
+                            return response;
+                        })
+                        .iterator(), target);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot write product snapshot " + target, ex);
+            }
+        });
+        log.info("Product snapshot written to {}: {} products in {} ms",
+                target, count, (System.nanoTime() - start) / 1_000_000);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.product_management.service;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.StockReservationItem;
+import com.example.product_management.dto.StockResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.exception.ResourceNotFoundException;
+import com.example.product_management.exception.ValidationException;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import com.example.product_management.model.StockJournalWatermark;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.repository.StockJournalWatermarkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Variations de stock sans lecture-modification-écriture : chaque variation est un UPDATE
+ * conditionnel unique qui respecte les bornes 0..{@value Product#MAX_QUANTITY}, donc aucune
+ * mise à jour concurrente n'est perdue.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductStockService {
+
+    private final ProductRepository productRepository;
+    private final StockJournalWatermarkRepository watermarkRepository;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Transactional
+    public StockResponse increaseStock(Long id, int amount) {
+        log.debug("Increasing stock of product {} by {}", id, amount);
+        return adjust(id, amount);
+    }
+
+    @Transactional
+    public StockResponse decreaseStock(Long id, int amount) {
+        log.debug("Decreasing stock of product {} by {}", id, amount);
+        return adjust(id, -amount);
+    }
+
+    /**
+     * Réserve plusieurs lignes en tout ou rien : si une ligne ne peut pas être servie,
+     * la transaction est annulée et aucun stock n'est retiré.
+     */
+    @Transactional
+    public List<StockResponse> reserveStock(List<StockReservationItem> items) {
+        log.info("Reserving stock for {} items", items.size());
+
+        // Ordre d'id stable : deux réservations concurrentes verrouillent les lignes dans le même ordre
+        return items.stream()
+                .sorted(Comparator.comparing(StockReservationItem::getProductId))
+                .map(item -> adjust(item.getProductId(), -item.getAmount()))
+                .toList();
+    }
+
+    /**
+     * Applique des deltas cumulés (id produit -> delta) en une transaction. Les lignes sont
+     * verrouillées dans l'ordre des ids puis modifiées en mémoire ; le flush émet les UPDATE en
+     * batch JDBC. Le résultat est ramené dans les bornes 0..{@value Product#MAX_QUANTITY} : la part
+     * écartée est journalisée par produit et comptée dans {@code product.stock.write_behind.clamped}
+     * (tag {@code bound}), les deltas des produits supprimés dans {@code product.stock.write_behind.dropped}.
+     * Le segment {@code flushedSegment} du journal {@code journalId} est marqué appliqué dans la
+     * même transaction.
+     */
+    @Transactional
+    public void applyDeltas(Map<Long, Long> deltas, String journalId, long flushedSegment) {
+        List<Product> products = productRepository.findAllByIdForUpdate(deltas.keySet());
+        if (products.size() < deltas.size()) {
+            Set<Long> deleted = new HashSet<>(deltas.keySet());
+            products.forEach(product -> deleted.remove(product.getId()));
+            for (Long id : deleted) {
+                log.warn("Dropping buffered stock delta {} for deleted product {}", deltas.get(id), id);
+                meterRegistry.counter("product.stock.write_behind.dropped").increment(Math.abs(deltas.get(id)));
+            }
+        }
+
+        List<ProductResponse> before = new ArrayList<>(products.size());
+        for (Product product : products) {
+            before.add(productMapper.toResponse(product));
+            long delta = deltas.get(product.getId());
+            long quantity = product.getQuantity() + delta;
+            int clamped = (int) Math.max(0, Math.min(Product.MAX_QUANTITY, quantity));
+            if (clamped != quantity) {
+                log.warn("Clamped buffered stock delta {} for product {}: quantity {} -> {} ({} units discarded)",
+                        delta, product.getId(), product.getQuantity(), clamped, Math.abs(quantity - clamped));
+                meterRegistry.counter("product.stock.write_behind.clamped", "bound", quantity < 0 ? "lower" : "upper")
+                        .increment(Math.abs(quantity - clamped));
+            }
+            product.setQuantity(clamped);
+        }
+        watermarkRepository.save(new StockJournalWatermark(journalId, flushedSegment));
+        productRepository.flush();
+        // Après le flush : l'état publié porte la version incrémentée
+        for (int i = 0; i < products.size(); i++) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before.get(i), productMapper.toResponse(products.get(i))));
+        }
+    }
+
+    /**
+     * Dernier segment du journal {@code journalId} déjà appliqué en base, 0 si aucun. Lu sur la
+     * primaire (transaction non read-only) : un réplica en retard ferait rejouer des deltas appliqués.
+     */
+    @Transactional
+    public long findFlushedJournalSegment(String journalId) {
+        return watermarkRepository.findById(journalId)
+                .map(StockJournalWatermark::getFlushedSegment)
+                .orElse(0L);
+    }
+
+    private StockResponse adjust(Long id, int delta) {
+        int updated = productRepository.adjustQuantity(id, delta, Product.MAX_QUANTITY, LocalDateTime.now());
+        if (updated == 0) {
+            Integer quantity = productRepository.findQuantityById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+            throw new ValidationException("Insufficient stock or capacity for product " + id
+                    + ": current quantity " + quantity + ", requested change " + delta);
+        }
+
+        // Le contexte de persistance a été vidé par l'UPDATE : cette lecture voit la nouvelle valeur
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        ProductResponse after = productMapper.toResponse(product);
+        ProductResponse before = productMapper.toResponse(product);
+        before.setQuantity(product.getQuantity() - delta);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
+
+        return new StockResponse(id, product.getQuantity());
+    }
+}
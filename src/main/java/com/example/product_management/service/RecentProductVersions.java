@@ -0,0 +1,83 @@
+package com.example.product_management.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Dernière version vue des produits absents d'un état en mémoire : produits supprimés, ou sortis
+ * du périmètre suivi. Elle permet d'écarter un {@link com.example.product_management.event.ProductChangedEvent}
+ * plus ancien reçu après coup.
+ * <p>
+ * Les événements sont publiés après commit, sur le thread de chaque transaction : deux écritures
+ * proches peuvent arriver dans le désordre, mais pas à plusieurs minutes d'écart. Une version est
+ * donc oubliée après {@code horizon} : la mémoire dépend du débit d'écriture, pas de la durée de
+ * vie du processus. Non synchronisée : l'appelant la protège par son propre verrou.
+ */
+public class RecentProductVersions {
+
+    public static final Duration DEFAULT_HORIZON = Duration.ofMinutes(5);
+
+    // Version d'un produit supprimé : tout événement ultérieur est plus ancien (les ids ne sont jamais réutilisés)
+    public static final long DELETED = Long.MAX_VALUE;
+
+    private final long horizonNanos;
+    private final LongSupplier nanoClock;
+    // Ordre d'insertion = ordre chronologique : les entrées expirées sont en tête
+    private final LinkedHashMap<Long, Seen> seen = new LinkedHashMap<>();
+
+    public RecentProductVersions() {
+        this(DEFAULT_HORIZON, System::nanoTime);
+    }
+
+    public RecentProductVersions(Duration horizon, LongSupplier nanoClock) {
+        this.horizonNanos = horizon.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public void put(long id, long version) {
+        long now = nanoClock.getAsLong();
+        expire(now);
+        seen.remove(id);
+        seen.put(id, new Seen(version, now));
+    }
+
+    public void remove(long id) {
+        seen.remove(id);
+    }
+
+    /**
+     * Version retenue pour {@code id}, ou null si elle est inconnue ou expirée.
+     */
+    public Long get(long id) {
+        expire(nanoClock.getAsLong());
+        Seen entry = seen.get(id);
+        return entry == null ? null : entry.version();
+    }
+
+    public boolean isDeleted(long id) {
+        Long version = get(id);
+        return version != null && version == DELETED;
+    }
+
+    public int size() {
+        expire(nanoClock.getAsLong());
+        return seen.size();
+    }
+
+    public void clear() {
+        seen.clear();
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<Long, Seen>> entries = seen.entrySet().iterator();
+        while (entries.hasNext() && now - entries.next().getValue().at() > horizonNanos) {
+            entries.remove();
+        }
+    }
+
+    private record Seen(long version, long at) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.product_management.service;
+
+import com.example.product_management.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Regroupement des lectures identiques simultanées : pour une clé donnée, un seul appelant
+ * (le meneur) exécute le chargement, les appels concurrents attendent et reçoivent son résultat
+ * ou son exception. L'attente est bornée ; au-delà, l'appel échoue en 503 plutôt que de
+ * s'accumuler derrière un chargement bloqué.
+ * <p>
+ * Après une écriture, {@link #invalidate} détache le chargement en cours : les appels suivants
+ * en lancent un nouveau au lieu de rejoindre une lecture commencée avant l'écriture.
+ * <p>
+ * Métriques {@code product.single_flight.calls} (tag {@code role} = leader / coalesced) et
+ * {@code product.single_flight.coalescing_ratio}, étiquetées par {@code name}.
+ */
+public class SingleFlight<K, V> {
+    
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitMs;
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Counter timeouts;
+    
+    public SingleFlight(String name, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.maxWaitMs = maxWaitMs;
+        
+        FunctionCounter.builder("product.single_flight.calls", leaders, LongAdder::sum)
+                .description("Reads that executed the load themselves")
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("product.single_flight.calls", coalesced, LongAdder::sum)
+                .description("Reads that shared a load already in flight")
+                .tag("name", name)
+                .tag("role", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("product.single_flight.coalescing_ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of reads served by another caller's load")
+                .tag("name", name)
+                .register(meterRegistry);
+        timeouts = Counter.builder("product.single_flight.timeouts")
+                .description("Coalesced reads that gave up waiting")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+    
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(key, existing);
+        }
+        
+        leaders.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            // Retiré une fois terminé : l'appel suivant relit la base (ou le cache) au lieu d'un résultat figé
+            inFlight.remove(key, call);
+        }
+    }
+    
+    /**
+     * Les appels qui suivent ne rejoignent plus le chargement en cours pour {@code key} ; ceux
+     * qui l'attendent déjà reçoivent toujours son résultat.
+     */
+    public void invalidate(K key) {
+        inFlight.remove(key);
+    }
+    
+    public double coalescingRatio() {
+        long total = leaders.sum() + coalesced.sum();
+        return total == 0 ? 0 : (double) coalesced.sum() / total;
+    }
+    
+    private V await(K key, CompletableFuture<V> call) {
+        try {
+            return call.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // Même exception que le meneur : un 404 reste un 404 pour tous les appelants
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            throw new ServiceOverloadedException("Timed out waiting for in-flight load of " + key, 1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for in-flight load of " + key, 1);
+        }
+    }
+}
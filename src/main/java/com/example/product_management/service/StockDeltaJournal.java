@@ -0,0 +1,184 @@
+package com.example.product_management.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Journal local en ajout seul des variations de stock non encore écrites en base.
+ * <p>
+ * Chaque enregistrement fait 16 octets (id produit, delta). Le journal est découpé en segments :
+ * à chaque flush le segment courant est fermé et un nouveau est ouvert ; un segment fermé n'est
+ * supprimé qu'une fois ses deltas validés en base. Au redémarrage, les segments restants sont
+ * relus pour reconstituer les deltas perdus avec le processus, sauf ceux que la base déclare déjà
+ * appliqués (numéro inférieur ou égal au dernier segment validé pour ce journal).
+ * <p>
+ * Sans fsync, un enregistrement survit à l'arrêt brutal du processus (il est dans le cache du
+ * système) mais pas à une coupure de la machine.
+ */
+@Slf4j
+class StockDeltaJournal implements AutoCloseable {
+
+    private static final int RECORD_SIZE = Long.BYTES * 2;
+    private static final String PREFIX = "stock-deltas-";
+    private static final String SUFFIX = ".log";
+    private static final String ID_FILE = "journal.id";
+
+    private final Path directory;
+    private final boolean fsync;
+    private long segmentNumber;
+    private Path segment;
+    private FileChannel channel;
+
+    StockDeltaJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Identifiant de ce journal, créé au premier appel et conservé dans le répertoire : il associe
+     * le journal à sa ligne de {@code stock_journal_watermarks}.
+     */
+    String id() {
+        Path file = directory.resolve(ID_FILE);
+        try {
+            Files.createDirectories(directory);
+            if (!Files.exists(file)) {
+                Path temp = Files.createTempFile(directory, ID_FILE, ".tmp");
+                Files.writeString(temp, UUID.randomUUID().toString());
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return Files.readString(file).trim();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read stock delta journal id in " + directory, ex);
+        }
+    }
+
+    /**
+     * Ouvre le journal et renvoie les deltas des segments laissés par une exécution précédente.
+     * Les segments de numéro inférieur ou égal à {@code flushedSegment} sont déjà appliqués en
+     * base : ils sont supprimés sans être relus. Les autres sont ajoutés à {@code recoveredSegments}
+     * pour être supprimés après le prochain flush.
+     */
+    Map<Long, Long> open(long flushedSegment, List<Path> recoveredSegments) {
+        Map<Long, Long> deltas = new HashMap<>();
+        try {
+            Files.createDirectories(directory);
+            // Les nouveaux segments restent au-dessus du dernier numéro validé
+            segmentNumber = flushedSegment;
+            for (Path existing : existingSegments()) {
+                segmentNumber = Math.max(segmentNumber, number(existing));
+                if (number(existing) <= flushedSegment) {
+                    log.info("Skipping stock delta journal segment {}, already applied", existing);
+                    delete(existing);
+                    continue;
+                }
+                readSegment(existing, deltas);
+                recoveredSegments.add(existing);
+            }
+            openNextSegment();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open stock delta journal in " + directory, ex);
+        }
+        return deltas;
+    }
+
+    void append(long productId, long delta) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).putLong(productId).putLong(delta).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot append to stock delta journal " + segment, ex);
+        }
+    }
+
+    /**
+     * Ferme le segment courant, en ouvre un nouveau et renvoie le segment fermé.
+     * L'appelant doit garantir qu'aucun {@link #append} n'est en cours. En cas d'échec le segment
+     * courant reste ouvert et continue de recevoir les enregistrements.
+     */
+    Path rotate() {
+        Path closed = segment;
+        FileChannel closedChannel = channel;
+        try {
+            closedChannel.force(false);
+            openNextSegment();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot rotate stock delta journal " + closed, ex);
+        }
+        try {
+            closedChannel.close();
+        } catch (IOException ex) {
+            // Contenu déjà forcé sur disque : seul le descripteur est perdu
+            log.warn("Cannot close stock delta journal segment {}", closed, ex);
+        }
+        return closed;
+    }
+
+    void delete(Path closedSegment) {
+        try {
+            Files.deleteIfExists(closedSegment);
+        } catch (IOException ex) {
+            log.warn("Cannot delete flushed stock delta journal segment {}", closedSegment, ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    // Le numéro et le segment courant ne changent que si l'ouverture réussit
+    private void openNextSegment() throws IOException {
+        Path next = directory.resolve(PREFIX + String.format("%019d", segmentNumber + 1) + SUFFIX);
+        channel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = next;
+        segmentNumber++;
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static void readSegment(Path path, Map<Long, Long> deltas) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        // Un enregistrement incomplet en fin de fichier correspond à une écriture interrompue : ignoré
+        while (buffer.remaining() >= RECORD_SIZE) {
+            deltas.merge(buffer.getLong(), buffer.getLong(), Long::sum);
+        }
+        log.info("Recovered {} bytes of stock deltas from {}", content.length, path);
+    }
+
+    static long number(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.product_management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Agrégation en écriture différée des variations de stock des produits très sollicités.
+ * <p>
+ * Les variations sont journalisées sur disque puis cumulées en mémoire par produit
+ * ({@link LongAdder}, sans contention entre threads). Un flush périodique écrit en base un seul
+ * delta par produit, en batch, via {@link ProductStockService#applyDeltas}. Les quantités restent
+ * bornées à 0..10000 au moment du flush : une variation différée ne peut pas être refusée.
+ * <p>
+ * Le numéro du dernier segment appliqué est validé avec les deltas : un arrêt brutal entre la
+ * validation et la suppression des segments ne fait pas rejouer ces deltas au redémarrage.
+ */
+@Service
+@Slf4j
+public class StockWriteBehindService {
+
+    private final ProductStockService productStockService;
+    private final MeterRegistry meterRegistry;
+    private final Path journalDirectory;
+    private final boolean fsync;
+
+    private final Map<Long, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final AtomicLong oldestPendingAt = new AtomicLong();
+    private final List<Path> unflushedSegments = new ArrayList<>();
+    private StockDeltaJournal journal;
+    private String journalId;
+    private Counter flushedDeltas;
+
+    public StockWriteBehindService(ProductStockService productStockService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${product.stock.write-behind.journal-dir:data/stock-journal}") Path journalDirectory,
+                                   @Value("${product.stock.write-behind.fsync:false}") boolean fsync) {
+        this.productStockService = productStockService;
+        this.meterRegistry = meterRegistry;
+        this.journalDirectory = journalDirectory;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public void start() {
+        journal = new StockDeltaJournal(journalDirectory, fsync);
+        journalId = journal.id();
+        Map<Long, Long> recovered = journal.open(productStockService.findFlushedJournalSegment(journalId), unflushedSegments);
+        if (recovered.isEmpty()) {
+            unflushedSegments.forEach(journal::delete);
+            unflushedSegments.clear();
+        } else {
+            log.warn("Recovered unflushed stock deltas for {} products from journal", recovered.size());
+            recovered.forEach(this::accumulate);
+        }
+
+        Gauge.builder("product.stock.write_behind.lag", this, StockWriteBehindService::lagSeconds)
+                .description("Age of the oldest stock delta not yet written to the database")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.write_behind.pending", pendingDeltas, Map::size)
+                .description("Products with a buffered stock delta")
+                .register(meterRegistry);
+        flushedDeltas = Counter.builder("product.stock.write_behind.flushed")
+                .description("Coalesced stock deltas written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une variation différée, appliquée au prochain flush. Au retour, elle est écrite
+     * dans le journal local : elle survit à un arrêt du processus, et à une coupure de la machine
+     * seulement avec {@code product.stock.write-behind.fsync=true}.
+     */
+    public void recordDelta(Long productId, int delta) {
+        rotationLock.readLock().lock();
+        try {
+            journal.append(productId, delta);
+            accumulate(productId, (long) delta);
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock.write-behind.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        long flushedSegment;
+
+        rotationLock.writeLock().lock();
+        try {
+            if (pendingDeltas.isEmpty()) {
+                return;
+            }
+            // Rotation d'abord : si elle échoue, les deltas restent en mémoire et dans le segment courant
+            Path closed = journal.rotate();
+            unflushedSegments.add(closed);
+            flushedSegment = StockDeltaJournal.number(closed);
+            pendingDeltas.forEach((id, adder) -> {
+                long delta = adder.sum();
+                if (delta != 0) {
+                    deltas.put(id, delta);
+                }
+            });
+            pendingDeltas.clear();
+            oldestPendingAt.set(0);
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+
+        try {
+            if (!deltas.isEmpty()) {
+                productStockService.applyDeltas(deltas, journalId, flushedSegment);
+                flushedDeltas.increment(deltas.size());
+            }
+        } catch (RuntimeException ex) {
+            // Les deltas repassent en mémoire ; leurs segments restent sur disque jusqu'au prochain flush réussi
+            log.error("Stock write-behind flush of {} products failed, will retry", deltas.size(), ex);
+            deltas.forEach(this::accumulate);
+            return;
+        }
+
+        // Un arrêt brutal avant cette suppression est sans effet : le démarrage saute les segments validés
+        unflushedSegments.forEach(journal::delete);
+        unflushedSegments.clear();
+        log.debug("Flushed buffered stock deltas for {} products", deltas.size());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    private void accumulate(Long productId, Long delta) {
+        oldestPendingAt.compareAndSet(0, System.currentTimeMillis());
+        pendingDeltas.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+    }
+
+    private double lagSeconds() {
+        long since = oldestPendingAt.get();
+        return since == 0 ? 0 : (System.currentTimeMillis() - since) / 1000.0;
+    }
+}
@@ -0,0 +1,27 @@
+-- Schéma de référence, identique à celui que ddl-auto=update produisait.
+-- IF NOT EXISTS : une base existante est intégrée sans modification (baseline-version 0).
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT         NOT NULL,
+    name        VARCHAR(255)   NOT NULL,
+    description VARCHAR(500)   NOT NULL,
+    price       DECIMAL(10, 2) NOT NULL,
+    quantity    INT            NOT NULL,
+    category    VARCHAR(255)   NOT NULL,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_products_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+-- Générateur d'ids de Product (Hibernate émule la séquence par une table sous MySQL)
+CREATE TABLE IF NOT EXISTS product_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO product_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM product_seq);
+
+-- L'optimiseur "pooled" (allocationSize 50) alloue les ids sous la valeur lue : marge au-dessus
+-- du plus grand id existant, créé par l'ancienne colonne AUTO_INCREMENT
+UPDATE product_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM products));
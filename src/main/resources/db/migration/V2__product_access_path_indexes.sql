@@ -0,0 +1,12 @@
+-- Index secondaires des chemins d'accès du catalogue.
+-- InnoDB ajoute la clé primaire à chaque index secondaire : (category, price) sert donc aussi
+-- la pagination par curseur (category, price, id) sans tri.
+
+-- findByCategory, pagination par catégorie triée par prix
+CREATE INDEX idx_products_category_price ON products (category, price);
+
+-- findLowStockProducts (quantity < :threshold)
+CREATE INDEX idx_products_quantity ON products (quantity);
+
+-- findByPriceBetween
+CREATE INDEX idx_products_price ON products (price);
@@ -0,0 +1,20 @@
+-- Table outbox du flux de changements (GET /api/v1/products/changes).
+-- feed_sequence est attribuée par le relais après validation ; NULL = pas encore publiée.
+CREATE TABLE product_changes (
+    id            BIGINT      NOT NULL,
+    feed_sequence BIGINT,
+    change_type   VARCHAR(16) NOT NULL,
+    product_id    BIGINT      NOT NULL,
+    payload       LONGTEXT    NOT NULL,
+    created_at    DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_product_changes_sequence UNIQUE (feed_sequence)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_product_changes_created_at ON product_changes (created_at);
+
+CREATE TABLE product_change_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO product_change_seq (next_val) VALUES (1);
@@ -0,0 +1,7 @@
+-- Versions agrégées pour les GET conditionnels : COUNT + MAX(updated_at) lus sur l'index seul
+
+-- Version d'une catégorie (GET /category/{category}, GET ?category=)
+CREATE INDEX idx_products_category_updated_at ON products (category, updated_at);
+
+-- Version du catalogue entier (GET sans filtre)
+CREATE INDEX idx_products_updated_at ON products (updated_at);
@@ -0,0 +1,9 @@
+-- Battement de cœur écrit sur la primaire et relu sur chaque réplica pour mesurer le retard
+-- de réplication (voir ReplicaLagMonitor). Une seule ligne, horodatage en millisecondes.
+CREATE TABLE replication_heartbeat (
+    id          INT    NOT NULL,
+    beat_millis BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0);
@@ -0,0 +1,2 @@
+-- Verrou optimiste (@Version) : les lignes existantes démarrent à la version 0
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Segments du journal des stocks différés déjà appliqués, par journal local (voir StockDeltaJournal).
+-- Mis à jour dans la même transaction que les deltas : un segment validé n'est jamais rejoué.
+CREATE TABLE stock_journal_watermarks (
+    journal_id      VARCHAR(36) NOT NULL,
+    flushed_segment BIGINT      NOT NULL,
+    PRIMARY KEY (journal_id)
+) ENGINE = InnoDB;
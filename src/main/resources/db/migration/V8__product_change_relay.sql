@@ -0,0 +1,13 @@
+-- Version du produit portée par chaque changement : le relais numérote les changements d'un même
+-- produit dans l'ordre de validation, quel que soit l'ordre d'allocation des ids.
+ALTER TABLE product_changes ADD COLUMN product_version BIGINT;
+
+-- Verrou du relais et dernière séquence attribuée (une seule ligne, id = 1).
+CREATE TABLE product_change_relay (
+    id            INT    NOT NULL,
+    last_sequence BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO product_change_relay (id, last_sequence)
+SELECT 1, COALESCE(MAX(feed_sequence), 0) FROM product_changes;
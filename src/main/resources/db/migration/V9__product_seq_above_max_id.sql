@@ -0,0 +1,7 @@
+-- Les ids de Product viennent de product_seq (optimiseur "pooled", allocationSize 50) depuis le
+-- passage d'IDENTITY à SEQUENCE. Une base passée par ddl-auto=update avant V1 a eu une table
+-- product_seq démarrant à 1, et des instances de l'ancienne version ont pu continuer d'insérer
+-- par AUTO_INCREMENT pendant le déploiement : la séquence est remontée au-dessus du plus grand id,
+-- avec une marge de deux allocations.
+UPDATE product_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 100 FROM products));
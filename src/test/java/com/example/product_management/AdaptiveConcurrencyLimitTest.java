@@ -0,0 +1,159 @@
+package com.example.product_management;
+
+import com.example.product_management.limiter.AdaptiveConcurrencyLimit;
+import com.example.product_management.limiter.AdaptiveLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private long now;
+
+    @Test
+    void tryAcquire_RejectsBeyondLimitUntilReleased() {
+        AdaptiveConcurrencyLimit limit = limit(2);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.releaseWithoutSample();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void release_IncreasesAdditivelyAndBacksOffMultiplicatively() {
+        AdaptiveConcurrencyLimit limit = limit(4);
+
+        // Latence stable, limite à moitié utilisée : +1
+        window(limit, 2, 10, false);
+        assertThat(limit.getLimit()).isEqualTo(5);
+        window(limit, 3, 10, false);
+        assertThat(limit.getLimit()).isEqualTo(6);
+
+        // Limite peu utilisée : pas de hausse
+        window(limit, 2, 10, false);
+        assertThat(limit.getLimit()).isEqualTo(6);
+
+        // Latence au-delà de 2 x la référence : x0.5
+        window(limit, 3, 50, false);
+        assertThat(limit.getLimit()).isEqualTo(3);
+
+        // Surcharge signalée sans hausse de latence : x0.5, jamais sous le plancher
+        window(limit, 2, 10, true);
+        assertThat(limit.getLimit()).isEqualTo(1);
+        window(limit, 1, 10, true);
+        window(limit, 1, 10, true);
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void release_KeepsBaselineThroughCongestion() {
+        AdaptiveConcurrencyLimit limit = limit(8);
+        window(limit, 4, 10, false);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        // Une file qui s'installe ne devient pas la nouvelle référence : la limite continue de baisser
+        window(limit, 5, 40, false);
+        window(limit, 4, 40, false);
+        window(limit, 2, 40, false);
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_ShedsPerBudgetWithRetryAfter() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveLimitFilter filter = new AdaptiveLimitFilter(
+                Map.of(AdaptiveLimitFilter.Budget.READ, limit(1),
+                        AdaptiveLimitFilter.Budget.WRITE, limit(1),
+                        AdaptiveLimitFilter.Budget.SEARCH, limit(1)),
+                "/api/v1/products/search", List.of("/api/v1/products/imports"), 2,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, () -> now);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockHttpServletResponse search = new MockHttpServletResponse();
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        MockHttpServletResponse upload = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/2"), rejected, (r, s) -> { });
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/search"), search, (r, s) -> { });
+                    // Budget écriture occupé : le téléversement d'import, exclu, passe quand même
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/products"), write,
+                            (r, s) -> filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/products/imports"),
+                                    upload, (r2, s2) -> upload.setStatus(202)));
+                });
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).contains("Too many concurrent read requests");
+        assertThat(search.getStatus()).isEqualTo(200);
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(upload.getStatus()).isEqualTo(202);
+
+        assertThat(meterRegistry.get("product.limiter.rejected").tag("budget", "read").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.limiter.rejected").tag("budget", "write").counter().count()).isZero();
+        assertThat(meterRegistry.get("product.limiter.limit").tag("budget", "search").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.limiter.in_flight").tag("budget", "read").gauge().value()).isZero();
+    }
+
+    @Test
+    void filter_BacksOffOnOverloadResponsesOnly() throws Exception {
+        AdaptiveConcurrencyLimit read = limit(4);
+        AdaptiveLimitFilter filter = new AdaptiveLimitFilter(
+                Map.of(AdaptiveLimitFilter.Budget.READ, read,
+                        AdaptiveLimitFilter.Budget.WRITE, limit(4),
+                        AdaptiveLimitFilter.Budget.SEARCH, limit(4)),
+                "/api/v1/products/search", List.of(), 2,
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(), () -> now);
+
+        // Erreur applicative : la limite ne bouge pas
+        respond(filter, 500);
+        respond(filter, 500);
+        assertThat(read.getLimit()).isEqualTo(4);
+
+        // Base saturée (503) ou délai dépassé (504) : x0.5
+        respond(filter, 503);
+        respond(filter, 500);
+        assertThat(read.getLimit()).isEqualTo(2);
+        respond(filter, 504);
+        respond(filter, 200);
+        assertThat(read.getLimit()).isEqualTo(1);
+    }
+
+    // Une requête de lecture de 50 ms terminée par status ; une fenêtre se clôt toutes les deux requêtes
+    private void respond(AdaptiveLimitFilter filter, int status) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products/1"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    now += TimeUnit.MILLISECONDS.toNanos(50);
+                    ((MockHttpServletResponse) res).setStatus(status);
+                });
+    }
+
+    private AdaptiveConcurrencyLimit limit(int initialLimit) {
+        return new AdaptiveConcurrencyLimit(
+                new AdaptiveConcurrencyLimit.Settings(initialLimit, 1, 10, 2.0, 0.5, 100, 2, 0), () -> now);
+    }
+
+    // Une fenêtre de 100 ms : concurrent requêtes simultanées, toutes de latencyMs ; la dernière la clôt
+    private void window(AdaptiveConcurrencyLimit limit, int concurrent, long latencyMs, boolean overloaded) {
+        for (int i = 0; i < concurrent; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        for (int i = 1; i < concurrent; i++) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMs), overloaded);
+        }
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMs), overloaded);
+    }
+}
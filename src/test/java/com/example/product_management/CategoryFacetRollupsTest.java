@@ -0,0 +1,127 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.CategoryFacet;
+import com.example.product_management.dto.CategoryPriceBucket;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.CategoryFacetRollups;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.*;
+
+class CategoryFacetRollupsTest {
+
+    private ProductRepository productRepository;
+    private CategoryFacetRollups rollups;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findCategoryPriceBuckets()).thenReturn(List.of(
+                new CategoryPriceBucket("Books", new BigDecimal("10.00"), 2L, 30L),
+                new CategoryPriceBucket("Books", new BigDecimal("25.00"), 1L, 5L),
+                new CategoryPriceBucket("Electronics", new BigDecimal("199.99"), 1L, 3L)));
+        // Mêmes produits, un par ligne : id, catégorie, prix, quantité, version
+        when(productRepository.findFacetStates()).thenReturn(List.of(
+                new Object[]{1L, "Books", new BigDecimal("10.00"), 10, 0L},
+                new Object[]{2L, "Books", new BigDecimal("10.00"), 20, 0L},
+                new Object[]{3L, "Books", new BigDecimal("25.00"), 5, 0L},
+                new Object[]{5L, "Electronics", new BigDecimal("199.99"), 3, 0L}));
+
+        rollups = new CategoryFacetRollups(productRepository);
+        rollups.rebuild();
+    }
+
+    @Test
+    void rebuild_ComputesFacetsFromProductStates() {
+        assertThat(rollups.isReady()).isTrue();
+        assertThat(rollups.facets())
+                .extracting(CategoryFacet::getCategory, CategoryFacet::getProductCount, CategoryFacet::getMinPrice,
+                        CategoryFacet::getMaxPrice, CategoryFacet::getAvgPrice, CategoryFacet::getTotalQuantity)
+                .containsExactly(
+                        tuple("Books", 3L, new BigDecimal("10.00"), new BigDecimal("25.00"), new BigDecimal("15.00"), 35L),
+                        tuple("Electronics", 1L, new BigDecimal("199.99"), new BigDecimal("199.99"), new BigDecimal("199.99"), 3L));
+    }
+
+    @Test
+    void onProductChanged_KeepsFacetsUpToDate() {
+        // Le seul produit à 25.00 passe à 12.00 : le max redescend sans relire la base
+        rollups.onProductChanged(ProductChangedEvent.updated(
+                response(3L, "Books", "25.00", 5, 0L), response(3L, "Books", "12.00", 9, 1L)));
+        rollups.onProductChanged(ProductChangedEvent.created(response(4L, "Toys", "5.50", 7, 0L)));
+        rollups.onProductChanged(ProductChangedEvent.deleted(response(5L, "Electronics", "199.99", 3, 0L)));
+
+        assertThat(rollups.facets())
+                .extracting(CategoryFacet::getCategory, CategoryFacet::getProductCount, CategoryFacet::getMaxPrice,
+                        CategoryFacet::getAvgPrice, CategoryFacet::getTotalQuantity)
+                .containsExactly(
+                        tuple("Books", 3L, new BigDecimal("12.00"), new BigDecimal("10.67"), 39L),
+                        tuple("Toys", 1L, new BigDecimal("5.50"), new BigDecimal("5.50"), 7L));
+        verify(productRepository, times(1)).findFacetStates();
+    }
+
+    @Test
+    void onProductChanged_MovesProductBetweenCategories() {
+        rollups.onProductChanged(ProductChangedEvent.updated(
+                response(5L, "Electronics", "199.99", 3, 0L), response(5L, "Books", "40.00", 3, 1L)));
+
+        assertThat(rollups.facets())
+                .extracting(CategoryFacet::getCategory, CategoryFacet::getProductCount, CategoryFacet::getMaxPrice)
+                .containsExactly(tuple("Books", 4L, new BigDecimal("40.00")));
+    }
+
+    @Test
+    void onProductChanged_IgnoresStaleAndOutOfOrderEvents() {
+        ProductResponse v0 = response(3L, "Books", "25.00", 5, 0L);
+        ProductResponse v1 = response(3L, "Books", "30.00", 5, 1L);
+        ProductResponse v2 = response(3L, "Books", "12.00", 5, 2L);
+        // Commits v1 puis v2, événements reçus dans l'ordre inverse puis rejoués
+        rollups.onProductChanged(ProductChangedEvent.updated(v1, v2));
+        rollups.onProductChanged(ProductChangedEvent.updated(v0, v1));
+        rollups.onProductChanged(ProductChangedEvent.updated(v1, v2));
+
+        assertThat(rollups.facets())
+                .extracting(CategoryFacet::getCategory, CategoryFacet::getProductCount, CategoryFacet::getMaxPrice,
+                        CategoryFacet::getTotalQuantity)
+                .containsExactly(
+                        tuple("Books", 3L, new BigDecimal("12.00"), 35L),
+                        tuple("Electronics", 1L, new BigDecimal("199.99"), 3L));
+    }
+
+    @Test
+    void onProductChanged_IgnoresEventsAfterDeletion() {
+        rollups.onProductChanged(ProductChangedEvent.deleted(response(5L, "Electronics", "199.99", 3, 1L)));
+        // Mise à jour validée avant la suppression mais reçue après, puis suppression rejouée
+        rollups.onProductChanged(ProductChangedEvent.updated(
+                response(5L, "Electronics", "199.99", 3, 0L), response(5L, "Electronics", "150.00", 3, 1L)));
+        rollups.onProductChanged(ProductChangedEvent.deleted(response(5L, "Electronics", "199.99", 3, 1L)));
+
+        assertThat(rollups.facets())
+                .extracting(CategoryFacet::getCategory, CategoryFacet::getProductCount)
+                .containsExactly(tuple("Books", 3L));
+    }
+
+    @Test
+    void aggregate_MatchesRollupsWithoutInMemoryState() {
+        assertThat(CategoryFacetRollups.aggregate(productRepository.findCategoryPriceBuckets()))
+                .isEqualTo(rollups.facets());
+    }
+
+    private static ProductResponse response(Long id, String category, String price, int quantity, Long version) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .category(category)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.product_management;
+
+import com.example.product_management.datasource.GatedDataSource;
+import com.example.product_management.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.sql.Connection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatedDataSourceTest {
+
+    private GatedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:gate-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = new GatedDataSource("test", h2, 2, 50, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void connectionsBeyondPoolSize_AreRejectedAfterTimeout() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertThat(first.isValid(1)).isTrue();
+            assertThat(second).isInstanceOf(ConnectionProxy.class);
+
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(ServiceOverloadedException.class);
+        }
+    }
+
+    @Test
+    void closingConnection_ReleasesPermitOnce() throws Exception {
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        try (Connection second = dataSource.getConnection(); Connection third = dataSource.getConnection()) {
+            assertThat(second.isClosed()).isFalse();
+            assertThat(third.isClosed()).isFalse();
+            // Un double close() n'a pas rendu de permis supplémentaire
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(ServiceOverloadedException.class);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.product_management;
+
+import com.example.product_management.config.LowStockProperties;
+import com.example.product_management.dto.LowStockAlert;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.LowStockAlertBroadcaster;
+import com.example.product_management.service.LowStockTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class LowStockTrackerTest {
+    
+    private ProductRepository productRepository;
+    private LowStockAlertBroadcaster broadcaster;
+    private LowStockTracker tracker;
+    
+    @BeforeEach
+    void setUp() {
+        LowStockProperties properties = new LowStockProperties();
+        properties.setDefaultThreshold(10);
+        properties.setThresholds(Map.of("Electronics", 5));
+        properties.setTrackedBelow(50);
+        
+        productRepository = mock(ProductRepository.class);
+        broadcaster = mock(LowStockAlertBroadcaster.class);
+        when(productRepository.findLowStockProducts(50)).thenReturn(List.of(
+                entity(1L, "Books", 8),
+                entity(2L, "Electronics", 3),
+                entity(3L, "Books", 30)));
+        
+        tracker = new LowStockTracker(productRepository, new ProductMapper(), properties, broadcaster);
+        tracker.rebuild();
+    }
+    
+    @Test
+    void findBelow_ReturnsProductsOrderedByQuantity() {
+        assertThat(tracker.covers(10)).isTrue();
+        assertThat(tracker.findBelow(10)).extracting(ProductResponse::getId).containsExactly(2L, 1L);
+        assertThat(tracker.findBelow(50)).extracting(ProductResponse::getId).containsExactly(2L, 1L, 3L);
+        assertThat(tracker.covers(51)).isFalse();
+    }
+    
+    @Test
+    void onProductChanged_KeepsStructureUpToDate() {
+        tracker.onProductChanged(ProductChangedEvent.updated(response(3L, "Books", 30), response(3L, "Books", 1, 1)));
+        tracker.onProductChanged(ProductChangedEvent.updated(response(1L, "Books", 8), response(1L, "Books", 80, 1)));
+        tracker.onProductChanged(ProductChangedEvent.deleted(response(2L, "Electronics", 3)));
+        
+        assertThat(tracker.findBelow(50)).extracting(ProductResponse::getId).containsExactly(3L);
+        verify(productRepository, times(1)).findLowStockProducts(anyInt());
+    }
+    
+    @Test
+    void onProductChanged_AlertsOnlyWhenCategoryThresholdIsCrossed() {
+        // 8 -> 6 : reste sous le seuil Books (10), pas d'alerte
+        tracker.onProductChanged(ProductChangedEvent.updated(response(1L, "Books", 8), response(1L, "Books", 6, 1)));
+        // 7 en Electronics : au-dessus du seuil propre à la catégorie (5), pas d'alerte
+        tracker.onProductChanged(ProductChangedEvent.created(response(4L, "Electronics", 7)));
+        verify(broadcaster, never()).broadcast(any());
+        
+        tracker.onProductChanged(ProductChangedEvent.updated(response(4L, "Electronics", 7), response(4L, "Electronics", 4, 1)));
+        tracker.onProductChanged(ProductChangedEvent.updated(response(1L, "Books", 6, 1), response(1L, "Books", 12, 2)));
+        
+        ArgumentCaptor<LowStockAlert> alerts = ArgumentCaptor.forClass(LowStockAlert.class);
+        verify(broadcaster, times(2)).broadcast(alerts.capture());
+        assertThat(alerts.getAllValues()).extracting(LowStockAlert::getType, LowStockAlert::getProductId, LowStockAlert::getThreshold)
+                .containsExactly(
+                        tuple(LowStockAlert.Type.LOW, 4L, 5),
+                        tuple(LowStockAlert.Type.CLEARED, 1L, 10));
+    }
+    
+    @Test
+    void onProductChanged_IgnoresDecrementDeliveredAfterANewerOne() {
+        // Deux décréments concurrents du produit 3 (30 -> 20 -> 12), le second livré en premier
+        tracker.onProductChanged(ProductChangedEvent.updated(response(3L, "Books", 20, 1), response(3L, "Books", 12, 2)));
+        tracker.onProductChanged(ProductChangedEvent.updated(response(3L, "Books", 30), response(3L, "Books", 20, 1)));
+        assertThat(tracker.findBelow(50)).extracting(ProductResponse::getQuantity).containsExactly(3, 8, 12);
+        
+        // Produit hors suivi : la version la plus récente (au-dessus du suivi) l'emporte aussi
+        tracker.onProductChanged(ProductChangedEvent.updated(response(5L, "Books", 40, 1), response(5L, "Books", 90, 2)));
+        tracker.onProductChanged(ProductChangedEvent.updated(response(5L, "Books", 100), response(5L, "Books", 40, 1)));
+        // Mise à jour livrée après la suppression : le produit ne revient pas et son alerte LOW n'est pas émise
+        tracker.onProductChanged(ProductChangedEvent.deleted(response(1L, "Books", 8, 1)));
+        tracker.onProductChanged(ProductChangedEvent.updated(response(1L, "Books", 15), response(1L, "Books", 7, 1)));
+        
+        assertThat(tracker.findBelow(50)).extracting(ProductResponse::getId).containsExactly(2L, 3L);
+        ArgumentCaptor<LowStockAlert> alerts = ArgumentCaptor.forClass(LowStockAlert.class);
+        verify(broadcaster).broadcast(alerts.capture());
+        assertThat(alerts.getValue().getType()).isEqualTo(LowStockAlert.Type.CLEARED);
+    }
+    
+    private static Product entity(Long id, String category, int quantity) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .description("Low stock test product")
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .category(category)
+                .build();
+    }
+    
+    private static ProductResponse response(Long id, String category, int quantity) {
+        return response(id, category, quantity, 0);
+    }
+    
+    private static ProductResponse response(Long id, String category, int quantity, long version) {
+        ProductResponse response = new ProductMapper().toResponse(entity(id, category, quantity));
+        response.setVersion(version);
+        return response;
+    }
+}
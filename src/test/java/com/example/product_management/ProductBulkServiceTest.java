@@ -0,0 +1,112 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.BulkItemResult;
+import com.example.product_management.dto.BulkOperationResponse;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.exception.BadRequestException;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductBulkService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductBulkServiceTest {
+
+    private ProductRepository productRepository;
+    private ProductBulkService productBulkService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productBulkService = new ProductBulkService(productRepository, new ProductMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(ApplicationEventPublisher.class));
+
+        AtomicLong ids = new AtomicLong(100);
+        when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Product> saved = new ArrayList<>(invocation.<List<Product>>getArgument(0));
+            saved.forEach(product -> product.setId(ids.incrementAndGet()));
+            return saved;
+        });
+    }
+
+    @Test
+    void createProducts_ReportsOneResultPerItem() {
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(List.of("existing product"));
+
+        BulkOperationResponse response = productBulkService.createProducts(List.of(
+                request("Laptop"),
+                request("x"),
+                request("LAPTOP"),
+                request("Existing Product"),
+                request("Tablet")));
+
+        assertThat(response.getRequested()).isEqualTo(5);
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(BulkItemResult::isSuccess)
+                .containsExactly(true, false, false, false, true);
+        assertThat(response.getResults().get(0).getId()).isEqualTo(101L);
+        assertThat(response.getResults().get(1).getError()).contains("name");
+        assertThat(response.getResults().get(2).getError()).contains("Duplicate name");
+        assertThat(response.getResults().get(3).getError()).contains("already exists");
+
+        // Une seule vérification des noms et un seul saveAll pour tout le lot
+        verify(productRepository, times(1)).findExistingNames(anyCollection());
+        verify(productRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void createProducts_RejectsOversizedBatch() {
+        List<ProductRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            requests.add(request("Product " + i));
+        }
+
+        assertThatThrownBy(() -> productBulkService.createProducts(requests))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void deleteProducts_ReportsMissingIds() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Laptop")
+                .description("Gaming laptop")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .category("Electronics")
+                .build();
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+
+        BulkOperationResponse response = productBulkService.deleteProducts(List.of(1L, 2L, 1L));
+
+        assertThat(response.getResults()).extracting(BulkItemResult::isSuccess)
+                .containsExactly(true, false, false);
+        verify(productRepository).deleteAllInBatch(anyCollection());
+    }
+
+    private static ProductRequest request(String name) {
+        return ProductRequest.builder()
+                .name(name)
+                .description("Description long enough")
+                .price(new BigDecimal("49.99"))
+                .quantity(3)
+                .category("Electronics")
+                .build();
+    }
+}
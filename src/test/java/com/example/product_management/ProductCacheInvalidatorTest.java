@@ -0,0 +1,106 @@
+package com.example.product_management;
+
+import com.example.product_management.config.CacheConfig;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.service.ProductCacheInvalidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheInvalidatorTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private ProductCacheInvalidator invalidator;
+    // Action exécutée juste avant la prochaine mise en cache (écriture concurrente simulée)
+    private Runnable beforePut;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE) {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new ConcurrentMapCache(name) {
+                    @Override
+                    public void put(Object key, Object value) {
+                        if (beforePut != null) {
+                            beforePut.run();
+                            beforePut = null;
+                        }
+                        super.put(key, value);
+                    }
+                };
+            }
+        };
+        invalidator = new ProductCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    void onProductChanged_EvictsUpdatedAndDeletedProducts() {
+        invalidator.cacheIfUnchanged(product(1L, 1L), invalidator.generation(1L));
+        invalidator.cacheIfUnchanged(product(2L, 1L), invalidator.generation(2L));
+        invalidator.cacheIfUnchanged(product(3L, 1L), invalidator.generation(3L));
+
+        invalidator.onProductChanged(ProductChangedEvent.updated(product(1L, 1L), product(1L, 2L)));
+        invalidator.onProductChanged(ProductChangedEvent.deleted(product(2L, 1L)));
+        invalidator.onProductChanged(ProductChangedEvent.created(product(4L, 0L)));
+
+        assertThat(invalidator.get(1L)).isNull();
+        assertThat(invalidator.get(2L)).isNull();
+        assertThat(invalidator.get(3L)).isNotNull();
+    }
+
+    @Test
+    void cacheIfUnchanged_SkipsValueReadBeforeACommittedWrite() {
+        // Lecture commencée avant l'écriture, terminée après son éviction
+        long generation = invalidator.generation(1L);
+        ProductResponse stale = product(1L, 1L);
+        invalidator.onProductChanged(ProductChangedEvent.updated(product(1L, 1L), product(1L, 2L)));
+
+        invalidator.cacheIfUnchanged(stale, generation);
+
+        assertThat(invalidator.get(1L)).isNull();
+    }
+
+    @Test
+    void cacheIfUnchanged_RemovesValueWhenEvictionRanBetweenCheckAndPut() {
+        long generation = invalidator.generation(1L);
+        beforePut = () -> invalidator.onProductChanged(ProductChangedEvent.updated(product(1L, 1L), product(1L, 2L)));
+
+        invalidator.cacheIfUnchanged(product(1L, 1L), generation);
+
+        assertThat(invalidator.get(1L)).isNull();
+    }
+
+    @Test
+    void cachedProduct_IsACopyIsolatedFromCallers() {
+        ProductResponse loaded = product(1L, 1L);
+        invalidator.cacheIfUnchanged(loaded, invalidator.generation(1L));
+        loaded.setPrice(new BigDecimal("1.00"));
+
+        ProductResponse first = invalidator.get(1L);
+        first.setName("Changed by a caller");
+
+        assertThat(invalidator.get(1L))
+                .isNotSameAs(first)
+                .extracting(ProductResponse::getName, ProductResponse::getPrice)
+                .containsExactly("Product 1", new BigDecimal("10.00"));
+    }
+
+    private static ProductResponse product(Long id, Long version) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("10.00"))
+                .quantity(5)
+                .category("Books")
+                .version(version)
+                .build();
+    }
+}
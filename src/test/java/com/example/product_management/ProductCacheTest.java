@@ -0,0 +1,63 @@
+package com.example.product_management;
+
+import com.example.product_management.config.CacheConfig;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cache des produits de bout en bout : configuration Caffeine, mise en cache par id, éviction après écriture
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void productsCache_IsCaffeineWithStats() {
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).isInstanceOfSatisfying(CaffeineCache.class,
+                cache -> assertThat(cache.getNativeCache().policy().isRecordingStats()).isTrue());
+    }
+
+    @Test
+    void getProductById_CachesUntilUpdateIsCommitted() {
+        ProductRequest request = request("Cached lamp " + UUID.randomUUID(), "30.00");
+        Long id = productService.createProduct(request).getId();
+
+        ProductResponse first = productService.getProductById(id);
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(id)).isNotNull();
+        // Copie renvoyée : modifier la réponse ne touche pas le cache
+        first.setPrice(BigDecimal.ONE);
+        assertThat(productService.getProductById(id).getPrice()).isEqualByComparingTo("30.00");
+
+        request.setPrice(new BigDecimal("35.00"));
+        productService.updateProduct(id, request, null);
+
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(id)).isNull();
+        assertThat(productService.getProductById(id).getPrice()).isEqualByComparingTo("35.00");
+    }
+
+    private static ProductRequest request(String name, String price) {
+        return ProductRequest.builder()
+                .name(name)
+                .description("Product used by the cache tests")
+                .price(new BigDecimal(price))
+                .quantity(3)
+                .category("Cache")
+                .build();
+    }
+}
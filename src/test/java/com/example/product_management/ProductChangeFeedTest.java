@@ -0,0 +1,123 @@
+package com.example.product_management;
+
+import com.example.product_management.event.ProductChangedEvent.ChangeType;
+import com.example.product_management.model.ProductChange;
+import com.example.product_management.model.ProductChangeRelay;
+import com.example.product_management.repository.ProductChangeRelayRepository;
+import com.example.product_management.repository.ProductChangeRepository;
+import com.example.product_management.service.ProductChangeFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductChangeFeedTest {
+
+    // Outbox simulée, partagée par toutes les instances
+    private final List<ProductChange> outbox = new ArrayList<>();
+    private final ProductChangeRelay relayState = new ProductChangeRelay(ProductChangeRelay.ID, 10L);
+    private ProductChangeRepository productChangeRepository;
+    private ProductChangeRelayRepository productChangeRelayRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        productChangeRepository = mock(ProductChangeRepository.class);
+        when(productChangeRepository.findBySequenceIsNullOrderByIdAsc(any())).thenAnswer(invocation -> outbox.stream()
+                .filter(change -> change.getSequence() == null)
+                .sorted(Comparator.comparing(ProductChange::getId))
+                .toList());
+        when(productChangeRepository.findBySequenceIsNullAndProductIdIn(anyCollection())).thenAnswer(invocation -> outbox.stream()
+                .filter(change -> change.getSequence() == null
+                        && invocation.<Collection<Long>>getArgument(0).contains(change.getProductId()))
+                .toList());
+        when(productChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(anyLong(), any())).thenAnswer(invocation -> outbox.stream()
+                .filter(change -> change.getSequence() != null && change.getSequence() > invocation.<Long>getArgument(0))
+                .sorted(Comparator.comparing(ProductChange::getSequence))
+                .toList());
+        when(productChangeRepository.findMaxSequence()).thenAnswer(invocation -> outbox.stream()
+                .map(ProductChange::getSequence).filter(Objects::nonNull).max(Long::compare));
+
+        productChangeRelayRepository = mock(ProductChangeRelayRepository.class);
+        when(productChangeRelayRepository.findById(ProductChangeRelay.ID)).thenReturn(Optional.of(relayState));
+        when(productChangeRelayRepository.findByIdForUpdate(ProductChangeRelay.ID)).thenReturn(Optional.of(relayState));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void relay_NumbersChangesOfAProductInVersionOrder() {
+        ProductChangeFeed feed = start();
+        // Ids alloués par blocs : la mise à jour v2 a reçu un id plus petit que la v1, validée avant elle
+        outbox.add(change(1L, 7L, 2L, ChangeType.UPDATED));
+        outbox.add(change(2L, 8L, 0L, ChangeType.CREATED));
+        outbox.add(change(3L, 7L, 2L, ChangeType.DELETED));
+        outbox.add(change(60L, 7L, 1L, ChangeType.UPDATED));
+
+        feed.relay();
+
+        assertThat(outbox).extracting(ProductChange::getId, ProductChange::getSequence)
+                .containsExactly(tuple(1L, 13L), tuple(2L, 12L), tuple(3L, 14L), tuple(60L, 11L));
+        assertThat(relayState.getLastSequence()).isEqualTo(14L);
+        assertThat(publishedSequence()).isEqualTo(14.0);
+    }
+
+    @Test
+    void relay_ContinuesFromSequenceNumberedByAnotherInstance() {
+        ProductChangeFeed feed = start();
+        // Une autre instance a numéroté 11 et 12 depuis notre démarrage
+        outbox.add(numbered(change(4L, 9L, 1L, ChangeType.UPDATED), 11L));
+        outbox.add(numbered(change(5L, 9L, 2L, ChangeType.UPDATED), 12L));
+        relayState.setLastSequence(12L);
+        outbox.add(change(6L, 9L, 3L, ChangeType.UPDATED));
+
+        feed.relay();
+
+        assertThat(outbox).extracting(ProductChange::getSequence).containsExactly(11L, 12L, 13L);
+        // Les changements numérotés ailleurs sont aussi publiés dans le tampon local
+        assertThat(publishedSequence()).isEqualTo(13.0);
+    }
+
+    private ProductChangeFeed start() {
+        ProductChangeFeed feed = new ProductChangeFeed(productChangeRepository, productChangeRelayRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, 100, 10, 60_000, Duration.ofDays(7));
+        feed.start();
+        return feed;
+    }
+
+    private double publishedSequence() {
+        return meterRegistry.get("product.changes.sequence").gauge().value();
+    }
+
+    private static ProductChange change(Long id, Long productId, Long version, ChangeType type) {
+        return ProductChange.builder()
+                .id(id)
+                .changeType(type)
+                .productId(productId)
+                .productVersion(version)
+                .payload("{\"id\":" + productId + ",\"version\":" + version + "}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static ProductChange numbered(ProductChange change, long sequence) {
+        change.setSequence(sequence);
+        return change;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ProductChangeMessage;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.service.ProductChangeRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductChangeRingBufferTest {
+    
+    @Test
+    void readAfter_ReturnsMessagesInSequenceOrder() {
+        ProductChangeRingBuffer buffer = new ProductChangeRingBuffer(8, 10);
+        buffer.append(messages(11, 15));
+        
+        assertThat(buffer.readAfter(10, 100)).extracting(ProductChangeMessage::getSequence)
+                .containsExactly(11L, 12L, 13L, 14L, 15L);
+        assertThat(buffer.readAfter(12, 2)).extracting(ProductChangeMessage::getSequence)
+                .containsExactly(13L, 14L);
+        assertThat(buffer.readAfter(15, 100)).isEmpty();
+    }
+    
+    @Test
+    void readAfter_ReturnsNullOnceReaderFellOutOfTheBuffer() {
+        ProductChangeRingBuffer buffer = new ProductChangeRingBuffer(4, 0);
+        buffer.append(messages(1, 10));
+        
+        assertThat(buffer.readAfter(5, 100)).isNull();
+        assertThat(buffer.readAfter(6, 100)).extracting(ProductChangeMessage::getSequence)
+                .containsExactly(7L, 8L, 9L, 10L);
+        // Avant le démarrage : ces séquences ne sont que dans l'outbox
+        assertThat(new ProductChangeRingBuffer(4, 10).readAfter(3, 100)).isNull();
+    }
+    
+    @Test
+    void append_RejectsGaps() {
+        ProductChangeRingBuffer buffer = new ProductChangeRingBuffer(4, 0);
+        
+        assertThatThrownBy(() -> buffer.append(messages(2, 2)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+    
+    @Test
+    void awaitAfter_WakesUpOnAppend() throws Exception {
+        ProductChangeRingBuffer buffer = new ProductChangeRingBuffer(4, 0);
+        assertThat(buffer.awaitAfter(0, 10, TimeUnit.MILLISECONDS)).isFalse();
+        
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return buffer.awaitAfter(0, 10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        buffer.append(messages(1, 1));
+        
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+    
+    private static List<ProductChangeMessage> messages(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(sequence -> ProductChangeMessage.builder()
+                        .sequence(sequence)
+                        .type(ProductChangedEvent.ChangeType.UPDATED)
+                        .productId(1L)
+                        .build())
+                .toList();
+    }
+}
@@ -1,10 +1,26 @@
 package com.example.product_management;
 
 import com.example.product_management.controller.ProductController;
+import com.example.product_management.dto.CatalogVersion;
+import com.example.product_management.dto.CategoryFacet;
+import com.example.product_management.dto.CursorPage;
+import com.example.product_management.dto.ProductFields;
+import com.example.product_management.dto.ProductPatchRequest;
 import com.example.product_management.dto.ProductRequest;
 import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.ProductVersion;
+import com.example.product_management.exception.PreconditionFailedException;
+import com.example.product_management.service.LowStockAlertBroadcaster;
+import com.example.product_management.service.ProductBulkService;
+import com.example.product_management.service.ProductChangeFeed;
+import com.example.product_management.service.ProductExportService;
+import com.example.product_management.service.ProductImportService;
 import com.example.product_management.service.ProductService;
+import com.example.product_management.service.ProductStockService;
+import com.example.product_management.service.StockWriteBehindService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,13 +29,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +60,27 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductExportService productExportService;
+
+    @MockBean
+    private ProductBulkService productBulkService;
+
+    @MockBean
+    private ProductStockService productStockService;
+
+    @MockBean
+    private StockWriteBehindService stockWriteBehindService;
+
+    @MockBean
+    private LowStockAlertBroadcaster lowStockAlertBroadcaster;
+
+    @MockBean
+    private ProductChangeFeed productChangeFeed;
+
+    @MockBean
+    private ProductImportService productImportService;
+
     private ProductRequest productRequest;
     private ProductResponse productResponse;
 
@@ -86,21 +130,129 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.data.name").value("Test Product"));
     }
 
+    @Test
+    void getProductById_NegotiatesCbor() throws Exception {
+        when(productService.getProductById(1L))
+                .thenReturn(productResponse);
+
+        byte[] body = mockMvc.perform(get("/api/v1/products/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode response = new CBORMapper().readTree(body);
+        assertEquals("Test Product", response.path("data").path("name").asText());
+    }
+
     @Test
     void getAllProducts_Success() throws Exception {
-        List<ProductResponse> products = Arrays.asList(productResponse);
-        when(productService.getAllProducts())
-                .thenReturn(products);
+        CursorPage<ProductResponse> page = CursorPage.<ProductResponse>builder()
+                .items(Arrays.asList(productResponse))
+                .nextCursor("aToy")
+                .hasNext(true)
+                .size(1)
+                .build();
+        when(productService.getProductsPage(null, 20, null, null))
+                .thenReturn(page);
 
         mockMvc.perform(get("/api/v1/products"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.items[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.data.nextCursor").value("aToy"))
+                .andExpect(jsonPath("$.data.hasNext").value(true));
+    }
+
+    @Test
+    void getProductById_NotModifiedWhenETagMatches() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(productService.getProductVersion(1L)).thenReturn(Optional.of(new ProductVersion(3L, updatedAt)));
+        productResponse.setVersion(3L);
+        productResponse.setUpdatedAt(updatedAt);
+        when(productService.getProductById(1L)).thenReturn(productResponse);
+
+        String etag = mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/products/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    @Test
+    void getProductById_ETagComesFromReturnedBody() throws Exception {
+        // Modification validée entre la lecture de la version et le chargement du produit
+        when(productService.getProductVersion(1L))
+                .thenReturn(Optional.of(new ProductVersion(3L, LocalDateTime.of(2024, 5, 1, 12, 0))));
+        productResponse.setVersion(4L);
+        productResponse.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 12, 5));
+        when(productService.getProductById(1L)).thenReturn(productResponse);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.version").value(4))
+                .andReturn();
+
+        assertEquals(List.of("W/\"4\""), result.getResponse().getHeaders("ETag"));
+    }
+
+    @Test
+    void getProductsByCategory_NotModifiedUntilCategoryVersionChanges() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(productService.getCatalogVersion("Electronics"))
+                .thenReturn(Optional.of(new CatalogVersion(3L, updatedAt)));
+        when(productService.getProductsByCategory("Electronics", null)).thenReturn(List.of(productResponse));
+
+        String etag = mockMvc.perform(get("/api/v1/products/category/Electronics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/products/category/Electronics").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // Une suppression dans la catégorie change le nombre de produits, donc l'ETag
+        when(productService.getCatalogVersion("Electronics"))
+                .thenReturn(Optional.of(new CatalogVersion(2L, updatedAt)));
+        mockMvc.perform(get("/api/v1/products/category/Electronics").header("If-None-Match", etag))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data[0].name").value("Test Product"));
     }
 
+    @Test
+    void getProductsByCategory_IgnoresIfModifiedSince() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(productService.getCatalogVersion("Electronics"))
+                .thenReturn(Optional.of(new CatalogVersion(2L, updatedAt)));
+        when(productService.getProductsByCategory("Electronics", null)).thenReturn(List.of(productResponse));
+
+        // Après une suppression, MAX(updated_at) n'a pas bougé : seule l'ETag peut valider la liste
+        mockMvc.perform(get("/api/v1/products/category/Electronics")
+                        .header("If-Modified-Since", "Wed, 01 May 2030 12:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andExpect(jsonPath("$.data[0].name").value("Test Product"));
+    }
+
+    @Test
+    void getProducts_ETagFollowsChangeFeedSequence() throws Exception {
+        when(productService.getCatalogVersion(null)).thenReturn(Optional.of(CatalogVersion.ofSequence(41L)));
+
+        mockMvc.perform(get("/api/v1/products").header("If-None-Match", "W/\"s41\""))
+                .andExpect(status().isNotModified());
+
+        when(productService.getCatalogVersion(null)).thenReturn(Optional.of(CatalogVersion.ofSequence(42L)));
+        when(productService.getProductsPage(null, 20, null, null))
+                .thenReturn(CursorPage.<ProductResponse>builder().items(List.of(productResponse)).size(1).build());
+        mockMvc.perform(get("/api/v1/products").header("If-None-Match", "W/\"s41\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"s42\""));
+    }
+
     @Test
     void updateProduct_Success() throws Exception {
-        when(productService.updateProduct(eq(1L), any(ProductRequest.class)))
+        when(productService.updateProduct(eq(1L), any(ProductRequest.class), isNull()))
                 .thenReturn(productResponse);
 
         mockMvc.perform(put("/api/v1/products/1")
@@ -111,16 +263,84 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.data.name").value("Test Product"));
     }
 
+    @Test
+    void patchProduct_PassesIfMatchVersionAndReturnsNewETag() throws Exception {
+        productResponse.setVersion(4L);
+        when(productService.patchProduct(eq(1L), any(ProductPatchRequest.class), eq(3L)))
+                .thenReturn(productResponse);
+
+        mockMvc.perform(patch("/api/v1/products/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 89.99}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"4\""))
+                .andExpect(jsonPath("$.data.version").value(4));
+        verify(productService).patchProduct(eq(1L), eq(ProductPatchRequest.builder().price(new BigDecimal("89.99")).build()), eq(3L));
+    }
+
+    @Test
+    void patchProduct_PreconditionFailedWhenVersionIsStale() throws Exception {
+        when(productService.patchProduct(eq(1L), any(ProductPatchRequest.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Product 1 is at version 3, request was based on version 2"));
+
+        mockMvc.perform(patch("/api/v1/products/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 5}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void patchProduct_RejectsInvalidField() throws Exception {
+        mockMvc.perform(patch("/api/v1/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": -1}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteProduct_Success() throws Exception {
         mockMvc.perform(delete("/api/v1/products/1"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void getCategoryFacets_Success() throws Exception {
+        when(productService.getCategoryFacets()).thenReturn(List.of(CategoryFacet.builder()
+                .category("Electronics")
+                .productCount(3L)
+                .minPrice(new BigDecimal("19.99"))
+                .maxPrice(new BigDecimal("99.99"))
+                .avgPrice(new BigDecimal("59.99"))
+                .totalQuantity(42L)
+                .build()));
+
+        mockMvc.perform(get("/api/v1/products/facets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].category").value("Electronics"))
+                .andExpect(jsonPath("$.data[0].productCount").value(3))
+                .andExpect(jsonPath("$.data[0].maxPrice").value(99.99))
+                .andExpect(jsonPath("$.data[0].totalQuantity").value(42));
+    }
+
+    @Test
+    void getProductsByPriceRange_Success() throws Exception {
+        when(productService.getProductsByPriceRange(new BigDecimal("50"), new BigDecimal("150")))
+                .thenReturn(List.of(productResponse));
+
+        mockMvc.perform(get("/api/v1/products/price-range")
+                        .param("minPrice", "50")
+                        .param("maxPrice", "150"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1));
+    }
+
     @Test
     void getProductsByCategory_Success() throws Exception {
         List<ProductResponse> products = Arrays.asList(productResponse);
-        when(productService.getProductsByCategory("Electronics"))
+        when(productService.getProductsByCategory("Electronics", null))
                 .thenReturn(products);
 
         mockMvc.perform(get("/api/v1/products/category/Electronics"))
@@ -129,10 +349,31 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.data[0].category").value("Electronics"));
     }
 
+    @Test
+    void getProductsByCategory_WithFields_ReturnsOnlyRequestedFields() throws Exception {
+        ProductResponse partial = ProductResponse.builder().id(1L).name("Test Product").price(new BigDecimal("99.99")).build();
+        when(productService.getProductsByCategory(eq("Electronics"), any(ProductFields.class)))
+                .thenReturn(List.of(partial));
+
+        mockMvc.perform(get("/api/v1/products/category/Electronics").param("fields", "name,price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.data[0].price").value(99.99))
+                .andExpect(jsonPath("$.data[0].description").doesNotExist())
+                .andExpect(jsonPath("$.data[0].quantity").doesNotExist());
+    }
+
+    @Test
+    void getProducts_UnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("fields", "name,secret"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void searchProducts_Success() throws Exception {
         List<ProductResponse> products = Arrays.asList(productResponse);
-        when(productService.searchProducts("Test"))
+        when(productService.searchProducts("Test", null))
                 .thenReturn(products);
 
         mockMvc.perform(get("/api/v1/products/search")
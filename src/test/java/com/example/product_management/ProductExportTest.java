@@ -0,0 +1,93 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.service.ProductExportService;
+import com.example.product_management.service.ProductService;
+import com.example.product_management.service.ProductSnapshot;
+import com.example.product_management.service.ProductSnapshotWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exports du catalogue complet sur H2 : même flux que MySQL, avec une taille de lot portable
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductExportTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductSnapshotWriter productSnapshotWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void exportAsNdjson_WritesOneProductPerLineInIdOrder() throws Exception {
+        ProductResponse first = create("Export lamp");
+        ProductResponse second = create("Export desk");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = productExportService.exportAsNdjson(out);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertThat(ndjson).endsWith("\n");
+        List<ProductResponse> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            lines.add(objectMapper.readValue(line, ProductResponse.class));
+        }
+        assertThat(lines).hasSize((int) count);
+        assertThat(lines).extracting(ProductResponse::getId).isSorted();
+        assertThat(lines).filteredOn(product -> product.getId().equals(first.getId())).singleElement()
+                .satisfies(product -> {
+                    assertThat(product.getName()).isEqualTo(first.getName());
+                    assertThat(product.getPrice()).isEqualByComparingTo("12.50");
+                    assertThat(product.getCategory()).isEqualTo("Export");
+                });
+        assertThat(lines).extracting(ProductResponse::getId).contains(second.getId());
+    }
+
+    @Test
+    void snapshotExport_ReadsTheSameStream() throws Exception {
+        ProductResponse created = create("Export shelf");
+        Path target = directory.resolve("products.snapshot");
+
+        int count = productSnapshotWriter.export(target);
+
+        ProductSnapshot snapshot = ProductSnapshot.open(target);
+        assertThat(snapshot.size()).isEqualTo(count);
+        assertThat(snapshot.findById(created.getId())).hasValueSatisfying(
+                product -> assertThat(product.getName()).isEqualTo(created.getName()));
+    }
+
+    private ProductResponse create(String name) {
+        return productService.createProduct(ProductRequest.builder()
+                .name(name + " " + UUID.randomUUID())
+                .description("Product used by the export tests")
+                .price(new BigDecimal("12.50"))
+                .quantity(4)
+                .category("Export")
+                .build());
+    }
+}
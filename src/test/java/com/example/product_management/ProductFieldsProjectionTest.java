@@ -0,0 +1,87 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.CursorPage;
+import com.example.product_management.dto.ProductFields;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Projections fields= sur la base H2 : colonnes demandées seulement, même ordre keyset que les entités
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductFieldsProjectionTest {
+    
+    private static final String CATEGORY = "Projection";
+    
+    @Autowired
+    private ProductService productService;
+    
+    @BeforeEach
+    void setUp() {
+        if (!productService.getProductsByCategory(CATEGORY, null).isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < 5; i++) {
+            productService.createProduct(ProductRequest.builder()
+                    .name("Projection product " + i)
+                    .description("A long description that list pages do not need " + i)
+                    .price(new BigDecimal(10 + (i % 3)))
+                    .quantity(i)
+                    .category(CATEGORY)
+                    .build());
+        }
+    }
+    
+    @Test
+    void getProductsByCategory_SelectsOnlyRequestedFields() {
+        List<ProductResponse> products = productService.getProductsByCategory(CATEGORY, ProductFields.parse("name"));
+        
+        assertThat(products).hasSize(5).allSatisfy(product -> {
+            assertThat(product.getId()).isNotNull();
+            assertThat(product.getName()).startsWith("Projection product");
+            assertThat(product.getDescription()).isNull();
+            assertThat(product.getPrice()).isNull();
+        });
+    }
+    
+    @Test
+    void getProductsByCategory_SelectsVersionForConditionalRequests() {
+        List<ProductResponse> products = productService.getProductsByCategory(CATEGORY, ProductFields.parse("version"));
+        
+        assertThat(products).hasSize(5).allSatisfy(product -> {
+            assertThat(product.getVersion()).isNotNull();
+            assertThat(product.getName()).isNull();
+        });
+    }
+    
+    @Test
+    void getProductsPage_WithFields_FollowsSameKeysetOrderAsFullEntities() {
+        ProductFields fields = ProductFields.parse("name");
+        List<Long> projected = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ProductResponse> page = productService.getProductsPage(cursor, 2, CATEGORY, fields);
+            page.getItems().forEach(item -> {
+                assertThat(item.getPrice()).isNull();
+                projected.add(item.getId());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        List<Long> full = productService.getProductsPage(null, 100, CATEGORY, null).getItems().stream()
+                .map(ProductResponse::getId)
+                .toList();
+        assertThat(projected).containsExactlyElementsOf(full);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ImportJobStatus;
+import com.example.product_management.dto.ImportRowError;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductImportService;
+import com.example.product_management.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void csvImport_PersistsValidRowsAndReportsRowErrors() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        productService.createProduct(ProductRequest.builder()
+                .name("Existing Import " + suffix)
+                .description("Product created before the import")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .category("Home")
+                .build());
+
+        String csv = String.join("\n",
+                "name,description,price,quantity,category",
+                "\"Import Lamp, Brass " + suffix + "\",A brass lamp for the study,49.90,12,Home",
+                "Import Chair " + suffix + ",\"Chair with \"\"ergonomic\"\" back\",120.00,4,Home",
+                "Import Desk " + suffix + ",Solid oak desk for the office,not-a-price,3,Home",
+                "Import Rug " + suffix + ",Too short,15.00,2,Home",
+                "\"import lamp, brass " + suffix + "\",Same lamp listed twice,49.90,1,Home",
+                "Existing Import " + suffix + ",Already in the catalog,10.00,1,Home");
+
+        ImportJobStatus status = importAndWait(new MockMultipartFile("file", "catalog.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(status.getState()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.getRowsRead()).isEqualTo(6);
+        assertThat(status.getRowsImported()).isEqualTo(2);
+        assertThat(status.getRowsRejected()).isEqualTo(4);
+        assertThat(status.getErrors()).extracting(ImportRowError::getLine).containsExactlyInAnyOrder(4L, 5L, 6L, 7L);
+        assertThat(productRepository.findExistingNames(List.of(
+                "Import Lamp, Brass " + suffix, "Import Chair " + suffix, "Import Desk " + suffix)))
+                .containsExactlyInAnyOrder("Import Lamp, Brass " + suffix, "Import Chair " + suffix);
+    }
+
+    @Test
+    void csvImport_KeepsInnerQuotesAndRejectsUnterminatedQuotedField() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String csv = String.join("\n",
+                "name,description,price,quantity,category",
+                "Import Monitor 27\" " + suffix + ",Screen with a 27\" panel,199.00,5,Office",
+                "Import Stand " + suffix + ",\"Monitor stand, never closed,25.00,3,Office",
+                "Import Cable " + suffix + ",Swallowed by the open quote,5.00,9,Office");
+
+        ImportJobStatus status = importAndWait(new MockMultipartFile("file", "catalog.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(status.getState()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.getRowsImported()).isEqualTo(1);
+        assertThat(status.getErrors()).extracting(ImportRowError::getLine, ImportRowError::getError)
+                .containsExactly(tuple(3L, "Unterminated quoted field"));
+        assertThat(productRepository.findByName("Import Monitor 27\" " + suffix))
+                .hasValueSatisfying(product -> assertThat(product.getDescription()).isEqualTo("Screen with a 27\" panel"));
+    }
+
+    @Test
+    void ndjsonImport_SkipsMalformedLines() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String ndjson = String.join("\n",
+                "{\"name\":\"Import Kettle " + suffix + "\",\"description\":\"Electric kettle, 1.7 litres\","
+                        + "\"price\":29.99,\"quantity\":20,\"category\":\"Kitchen\"}",
+                "{\"name\":",
+                "",
+                "{\"name\":\"Import Toaster " + suffix + "\",\"description\":\"Two-slot stainless toaster\","
+                        + "\"price\":39.99,\"quantity\":8,\"category\":\"Kitchen\"}");
+
+        ImportJobStatus status = importAndWait(new MockMultipartFile("file", "catalog.ndjson", "application/x-ndjson",
+                ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(status.getState()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.getRowsImported()).isEqualTo(2);
+        assertThat(status.getErrors()).extracting(ImportRowError::getLine, ImportRowError::getName)
+                .containsExactly(tuple(2L, null));
+    }
+
+    private ImportJobStatus importAndWait(MockMultipartFile file) throws InterruptedException {
+        ImportJobStatus status = productImportService.submit(file, null);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (status.getState() == ImportJobStatus.State.QUEUED || status.getState() == ImportJobStatus.State.RUNNING) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(50);
+            status = productImportService.getJob(status.getJobId());
+        }
+        return status;
+    }
+}
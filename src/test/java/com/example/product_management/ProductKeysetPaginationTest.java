@@ -0,0 +1,166 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.CursorPage;
+import com.example.product_management.dto.ProductCursor;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.exception.BadRequestException;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Pagination keyset sur la base H2 : requêtes du dépôt et curseurs de ProductService
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductKeysetPaginationTest {
+
+    // Prix en doublon de part et d'autre des limites de page (taille 2) : seul l'id départage
+    private static final String[] PRICES = {"20.00", "10.00", "10.00", "5.00", "10.00", "20.00"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    private String category;
+    private List<Long> expectedOrder;
+
+    @BeforeEach
+    void setUp() {
+        category = "Keyset " + UUID.randomUUID();
+        List<ProductResponse> created = new ArrayList<>();
+        for (int i = 0; i < PRICES.length; i++) {
+            created.add(productService.createProduct(ProductRequest.builder()
+                    .name(category + " product " + i)
+                    .description("Product used by the keyset pagination tests")
+                    .price(new BigDecimal(PRICES[i]))
+                    .quantity(i)
+                    .category(category)
+                    .build()));
+        }
+        expectedOrder = created.stream()
+                .sorted(Comparator.comparing(ProductResponse::getPrice).thenComparing(ProductResponse::getId))
+                .map(ProductResponse::getId)
+                .toList();
+    }
+
+    @Test
+    void findCategoryPageAfter_BreaksPriceTiesById() {
+        Pageable two = Pageable.ofSize(2);
+        List<Long> visited = new ArrayList<>();
+        List<Product> page = productRepository.findByCategoryOrderByPriceAscIdAsc(category, two);
+        while (!page.isEmpty()) {
+            assertThat(page).hasSizeLessThanOrEqualTo(2);
+            page.forEach(product -> visited.add(product.getId()));
+            Product last = page.get(page.size() - 1);
+            page = productRepository.findCategoryPageAfter(category, last.getPrice(), last.getId(), two);
+        }
+
+        assertThat(visited).containsExactlyElementsOf(expectedOrder);
+    }
+
+    @Test
+    void findPageAfter_StartsStrictlyAfterTheCursorId() {
+        Long third = expectedOrder.stream().sorted().toList().get(2);
+
+        List<Long> following = productRepository.findAll().stream()
+                .map(Product::getId)
+                .filter(id -> id > third)
+                .sorted()
+                .limit(2)
+                .toList();
+
+        List<Product> page = productRepository.findPageAfter(third, Pageable.ofSize(2));
+
+        assertThat(page).extracting(Product::getId).containsExactlyElementsOf(following);
+    }
+
+    @Test
+    void getProductsPage_WalksCategoryWithoutGapsOrDuplicates() {
+        List<Long> visited = new ArrayList<>();
+        List<CursorPage<ProductResponse>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ProductResponse> page = productService.getProductsPage(cursor, 2, category, null);
+            pages.add(page);
+            page.getItems().forEach(product -> visited.add(product.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(visited).containsExactlyElementsOf(expectedOrder);
+        // Six produits, pages de deux : la dernière est pleine mais n'annonce pas de suite
+        assertThat(pages).hasSize(3);
+        CursorPage<ProductResponse> last = pages.get(2);
+        assertThat(last.getSize()).isEqualTo(2);
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getProductsPage_LastPartialPageHasNoNextCursor() {
+        CursorPage<ProductResponse> first = productService.getProductsPage(null, 4, category, null);
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPage<ProductResponse> last = productService.getProductsPage(first.getNextCursor(), 4, category, null);
+
+        assertThat(last.getItems()).extracting(ProductResponse::getId).containsExactlyElementsOf(expectedOrder.subList(4, 6));
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getProductsPage_WalksWholeCatalogInIdOrder() {
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ProductResponse> page = productService.getProductsPage(cursor, 50, null, null);
+            page.getItems().forEach(product -> visited.add(product.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(visited).doesNotHaveDuplicates().isSorted().containsAll(expectedOrder);
+        assertThat(visited).hasSize((int) productRepository.count());
+    }
+
+    @Test
+    void getProductsPage_RejectsMalformedCursors() {
+        for (String cursor : List.of("not a cursor!", encode("x:1"), encode("i:abc"), encode("p:10.00"), encode("p:ten:1"))) {
+            assertThatThrownBy(() -> productService.getProductsPage(cursor, 2, category, null))
+                    .as(cursor)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    void getProductsPage_RejectsCursorFromTheOtherListing() {
+        String idCursor = ProductCursor.of(expectedOrder.get(0)).encode();
+        String categoryCursor = ProductCursor.of(new BigDecimal("10.00"), expectedOrder.get(0)).encode();
+
+        assertThatThrownBy(() -> productService.getProductsPage(idCursor, 2, category, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productService.getProductsPage(categoryCursor, 2, null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductMapperTest {
+    
+    private final ProductMapper productMapper = new ProductMapper();
+    
+    @Test
+    void toEntity_CopiesRequestFields() {
+        ProductRequest request = ProductRequest.builder()
+                .name("Laptop")
+                .description("Gaming laptop")
+                .price(new BigDecimal("1999.99"))
+                .quantity(5)
+                .category("Electronics")
+                .build();
+        
+        Product product = productMapper.toEntity(request);
+        
+        assertThat(product.getId()).isNull();
+        assertThat(product.getName()).isEqualTo("Laptop");
+        assertThat(product.getDescription()).isEqualTo("Gaming laptop");
+        assertThat(product.getPrice()).isEqualTo(new BigDecimal("1999.99"));
+        assertThat(product.getQuantity()).isEqualTo(5);
+        assertThat(product.getCategory()).isEqualTo("Electronics");
+    }
+    
+    @Test
+    void updateEntity_KeepsIdentityAndAuditFields() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        Product product = Product.builder()
+                .id(7L)
+                .name("Old name")
+                .description("Old description")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .category("Old")
+                .createdAt(createdAt)
+                .build();
+        ProductRequest request = ProductRequest.builder()
+                .name("New name")
+                .description("New description")
+                .price(new BigDecimal("20.00"))
+                .quantity(2)
+                .category("New")
+                .build();
+        
+        productMapper.updateEntity(request, product);
+        
+        assertThat(product.getId()).isEqualTo(7L);
+        assertThat(product.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(product.getName()).isEqualTo("New name");
+        assertThat(product.getPrice()).isEqualTo(new BigDecimal("20.00"));
+        assertThat(product.getCategory()).isEqualTo("New");
+    }
+    
+    @Test
+    void toResponse_CopiesAllFields() {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = Product.builder()
+                .id(3L)
+                .name("Tablet")
+                .description("10-inch tablet")
+                .price(new BigDecimal("499.99"))
+                .quantity(8)
+                .category("Electronics")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        
+        ProductResponse response = productMapper.toResponse(product);
+        
+        assertThat(response.getId()).isEqualTo(3L);
+        assertThat(response.getName()).isEqualTo("Tablet");
+        assertThat(response.getDescription()).isEqualTo("10-inch tablet");
+        assertThat(response.getPrice()).isEqualTo(new BigDecimal("499.99"));
+        assertThat(response.getQuantity()).isEqualTo(8);
+        assertThat(response.getCategory()).isEqualTo("Electronics");
+        assertThat(response.getCreatedAt()).isEqualTo(now);
+        assertThat(response.getUpdatedAt()).isEqualTo(now);
+    }
+}
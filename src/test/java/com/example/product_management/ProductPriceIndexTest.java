@@ -0,0 +1,125 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductPriceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductPriceIndexTest {
+
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllPricesOrderByPrice()).thenReturn(List.of(
+                new Object[]{3L, new BigDecimal("5.00"), 0L},
+                new Object[]{1L, new BigDecimal("10.00"), 0L},
+                new Object[]{2L, new BigDecimal("10.00"), 0L},
+                new Object[]{4L, new BigDecimal("99.99"), 0L}));
+
+        index = new ProductPriceIndex(productRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void findIdsBetween_ReturnsIdsByPriceThenIdWithInclusiveBounds() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.findIdsBetween(new BigDecimal("5"), new BigDecimal("10"))).containsExactly(3L, 1L, 2L);
+        assertThat(index.findIdsBetween(new BigDecimal("5.001"), new BigDecimal("99.989"))).containsExactly(1L, 2L);
+        assertThat(index.findIdsBetween(new BigDecimal("100"), new BigDecimal("1000000000000000000000"))).isEmpty();
+        assertThat(index.findIdsBetween(new BigDecimal("10.001"), new BigDecimal("10.009"))).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_AppliesWritesWithoutReload() {
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "10.00", 0), product(1L, "50.00", 1)));
+        index.onProductChanged(ProductChangedEvent.created(product(5L, "7.50", 0)));
+        index.onProductChanged(ProductChangedEvent.deleted(product(3L, "5.00", 0)));
+        // Variation de stock : même prix, index inchangé
+        index.onProductChanged(ProductChangedEvent.updated(product(2L, "10.00", 0), product(2L, "10.00", 1)));
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.findIdsBetween(BigDecimal.ZERO, new BigDecimal("1000"))).containsExactly(5L, 2L, 1L, 4L);
+        assertThat(index.findIdsBetween(new BigDecimal("10"), new BigDecimal("50"))).containsExactly(2L, 1L);
+
+        // Prix rétabli : l'entrée d'origine revient au lieu d'être ajoutée une seconde fois
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "50.00", 1), product(1L, "10.00", 2)));
+        assertThat(index.findIdsBetween(new BigDecimal("10"), new BigDecimal("10"))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void onProductChanged_RemovesIndexedEntryEvenWhenEventBeforeIsStale() {
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "10.00", 0), product(1L, "20.00", 1)));
+        // État « avant » périmé : le produit 1 est indexé à 20.00, pas à 10.00
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "10.00", 0), product(1L, "30.00", 2)));
+        index.onProductChanged(ProductChangedEvent.deleted(product(4L, "1.00", 0)));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.findIdsBetween(BigDecimal.ZERO, new BigDecimal("1000"))).containsExactly(3L, 2L, 1L);
+        assertThat(index.findIdsBetween(new BigDecimal("20"), new BigDecimal("20"))).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_MergesDeltaIntoMainArrays() {
+        List<Long> expected = new ArrayList<>(List.of(3L, 1L, 2L, 4L));
+        for (long id = 100; id < 100 + 3 * 4096; id++) {
+            index.onProductChanged(ProductChangedEvent.created(product(id, "200.00", 0)));
+            expected.add(id);
+        }
+        index.onProductChanged(ProductChangedEvent.deleted(product(4L, "99.99", 0)));
+        expected.remove(4L);
+        // Après fusion, le prix et la version par id suivent les tableaux fusionnés
+        index.onProductChanged(ProductChangedEvent.updated(product(100L, "200.00", 0), product(100L, "1.00", 1)));
+        expected.remove(100L);
+        expected.add(0, 100L);
+        // Version déjà indexée, produit supprimé : ignorés après fusion aussi
+        index.onProductChanged(ProductChangedEvent.updated(product(101L, "200.00", 0), product(101L, "2.00", 0)));
+        index.onProductChanged(ProductChangedEvent.created(product(4L, "99.99", 0)));
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        assertThat(index.findIdsBetween(BigDecimal.ZERO, new BigDecimal("1000")))
+                .containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    @Test
+    void onProductChanged_IgnoresEventsDeliveredOutOfCommitOrder() {
+        // Deux changements de prix du produit 1, le plus récent livré en premier
+        ProductChangedEvent first = ProductChangedEvent.updated(product(1L, "10.00", 0), product(1L, "20.00", 1));
+        ProductChangedEvent second = ProductChangedEvent.updated(product(1L, "20.00", 1), product(1L, "30.00", 2));
+        index.onProductChanged(second);
+        index.onProductChanged(first);
+
+        assertThat(index.findIdsBetween(new BigDecimal("30"), new BigDecimal("30"))).containsExactly(1L);
+        assertThat(index.findIdsBetween(new BigDecimal("20"), new BigDecimal("20"))).isEmpty();
+
+        // Mise à jour livrée après la suppression du produit : il ne réapparaît pas
+        ProductChangedEvent update = ProductChangedEvent.updated(product(2L, "10.00", 0), product(2L, "15.00", 1));
+        index.onProductChanged(ProductChangedEvent.deleted(product(2L, "15.00", 1)));
+        index.onProductChanged(update);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.findIdsBetween(BigDecimal.ZERO, new BigDecimal("1000"))).containsExactly(3L, 1L, 4L);
+    }
+
+    private static ProductResponse product(Long id, String price, long version) {
+        return ProductResponse.builder()
+                .id(id)
+                .version(version)
+                .name("Product " + id)
+                .price(new BigDecimal(price))
+                .quantity(1)
+                .category("Books")
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.event.ProductChangedEvent;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+    
+    private ProductSearchIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class), new ProductMapper());
+        index.onProductChanged(ProductChangedEvent.created(product(1L, "Gaming Laptop", "Fast laptop for games")));
+        index.onProductChanged(ProductChangedEvent.created(product(2L, "Office Chair", "Ergonomic chair, fits any laptop desk")));
+        index.onProductChanged(ProductChangedEvent.created(product(3L, "Laptop Sleeve", "Neoprene sleeve")));
+    }
+    
+    @Test
+    void search_RanksNameMatchesFirst() {
+        assertThat(index.search("laptop", 10)).containsExactly(1L, 3L, 2L);
+    }
+    
+    @Test
+    void search_MatchesPrefixesCaseInsensitively() {
+        assertThat(index.search("ERGO", 10)).containsExactly(2L);
+        assertThat(index.search("lap", 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+    
+    @Test
+    void search_RequiresEveryQueryTerm() {
+        assertThat(index.search("laptop sleeve", 10)).containsExactly(3L);
+        assertThat(index.search("laptop unicorn", 10)).isEmpty();
+    }
+    
+    @Test
+    void search_HonoursLimit() {
+        assertThat(index.search("laptop", 1)).containsExactly(1L);
+    }
+    
+    @Test
+    void onProductChanged_UpdateAndDeleteAreReflected() {
+        ProductResponse before = product(3L, "Laptop Sleeve", "Neoprene sleeve");
+        ProductResponse after = product(3L, "Tablet Sleeve", "Neoprene sleeve");
+        after.setVersion(1L);
+        index.onProductChanged(ProductChangedEvent.updated(before, after));
+        
+        assertThat(index.search("laptop", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("tablet", 10)).containsExactly(3L);
+        
+        index.onProductChanged(ProductChangedEvent.deleted(after));
+        assertThat(index.search("sleeve", 10)).isEmpty();
+    }
+    
+    @Test
+    void onProductChanged_KeepsNewestNameWhenRenamesArriveOutOfOrder() {
+        ProductResponse original = product(3L, "Laptop Sleeve", "Neoprene sleeve");
+        ProductResponse renamed = product(3L, "Tablet Sleeve", "Neoprene sleeve");
+        renamed.setVersion(1L);
+        ProductResponse renamedAgain = product(3L, "Phone Pouch", "Neoprene pouch");
+        renamedAgain.setVersion(2L);
+        // Deux renommages concurrents : le plus récent est livré en premier
+        index.onProductChanged(ProductChangedEvent.updated(renamed, renamedAgain));
+        index.onProductChanged(ProductChangedEvent.updated(original, renamed));
+        
+        assertThat(index.search("phone pouch", 10)).containsExactly(3L);
+        assertThat(index.search("tablet", 10)).isEmpty();
+        assertThat(index.search("sleeve", 10)).isEmpty();
+        assertThat(index.search("laptop", 10)).containsExactly(1L, 2L);
+        
+        // Renommage livré après la suppression : le produit ne revient pas
+        index.onProductChanged(ProductChangedEvent.deleted(renamedAgain));
+        ProductResponse late = product(3L, "Late Name", "Neoprene pouch");
+        late.setVersion(3L);
+        index.onProductChanged(ProductChangedEvent.updated(renamedAgain, late));
+        assertThat(index.search("late", 10)).isEmpty();
+        assertThat(index.search("pouch", 10)).isEmpty();
+    }
+    
+    private static ProductResponse product(Long id, String name, String description) {
+        return ProductResponse.builder()
+                .id(id)
+                .version(0L)
+                .name(name)
+                .description(description)
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .category("Test")
+                .build();
+    }
+}
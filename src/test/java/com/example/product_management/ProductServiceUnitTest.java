@@ -1,19 +1,30 @@
 package com.example.product_management;
 
+import com.example.product_management.dto.CatalogVersion;
 import com.example.product_management.dto.ProductRequest;
 import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.mapper.ProductMapper;
 import com.example.product_management.model.Product;
+import com.example.product_management.service.ProductCacheInvalidator;
+import com.example.product_management.service.ProductChangeFeed;
+import com.example.product_management.service.ProductPriceIndex;
+import com.example.product_management.service.ProductSnapshotStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceUnitTest {
@@ -22,7 +33,19 @@ class ProductServiceUnitTest {
     private com.example.product_management.repository.ProductRepository productRepository;
     
     @Mock
-    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    
+    @Mock
+    private ProductSnapshotStore productSnapshotStore;
+    
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+    
+    @Mock
+    private ProductCacheInvalidator productCacheInvalidator;
+    
+    @Mock
+    private ProductChangeFeed productChangeFeed;
     
     @InjectMocks
     private com.example.product_management.service.ProductService productService;
@@ -90,4 +113,30 @@ class ProductServiceUnitTest {
         assertNotNull(productService);
         // Les mocks sont injectés automatiquement par @InjectMocks
     }
-}
\ No newline at end of file
+    
+    @Test
+    void getProductsByPriceRange_DropsProductsRepricedSinceIndexRead() {
+        Product repriced = Product.builder().id(2L).name("Other").price(new BigDecimal("150.00"))
+                .quantity(1).category("Electronics").build();
+        when(productPriceIndex.isReady()).thenReturn(true);
+        when(productPriceIndex.findIdsBetween(any(), any())).thenReturn(new long[]{1L, 2L});
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(product, repriced));
+        when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> {
+            Product p = invocation.getArgument(0);
+            return ProductResponse.builder().id(p.getId()).name(p.getName()).price(p.getPrice()).build();
+        });
+        
+        List<ProductResponse> products = productService.getProductsByPriceRange(new BigDecimal("50"), new BigDecimal("100"));
+        
+        // Le produit 2 a changé de prix entre la lecture de l'index et son chargement
+        assertEquals(List.of(1L), products.stream().map(ProductResponse::getId).toList());
+    }
+    
+    @Test
+    void getCatalogVersion_WholeCatalogFollowsChangeFeedWithoutQuery() {
+        when(productChangeFeed.lastSequence()).thenReturn(OptionalLong.of(42L));
+        
+        assertEquals(Optional.of(CatalogVersion.ofSequence(42L)), productService.getCatalogVersion(null));
+        verifyNoInteractions(productRepository);
+    }
+}
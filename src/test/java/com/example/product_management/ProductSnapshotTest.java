@@ -0,0 +1,189 @@
+package com.example.product_management;
+
+import com.example.product_management.config.CacheConfig;
+import com.example.product_management.config.ReadOnlyModeFilter;
+import com.example.product_management.dto.CatalogVersion;
+import com.example.product_management.dto.CategoryFacet;
+import com.example.product_management.dto.ProductFields;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.ProductVersion;
+import com.example.product_management.service.CategoryFacetRollups;
+import com.example.product_management.service.ProductSnapshot;
+import com.example.product_management.service.ProductSnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class ProductSnapshotTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 9, 30, 0, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_ThenOpen_ServesProductsByIdCategoryAndPrice() throws IOException {
+        Path file = directory.resolve("products.snapshot");
+        ProductSnapshot.write(List.of(
+                product(1L, "Novel", "Électronique", "12.50", CREATED.plusDays(1)),
+                product(2L, "Laptop", "Electronics", "999.99", CREATED.plusDays(3)),
+                product(5L, "Headphones", "electronics", "59.00", CREATED.plusDays(2)),
+                product(9L, "Cookbook", null, "25.00", null)).iterator(), file);
+
+        ProductSnapshot snapshot = ProductSnapshot.open(file);
+
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.findById(2L)).get().isEqualTo(product(2L, "Laptop", "Electronics", "999.99", CREATED.plusDays(3)));
+        assertThat(snapshot.findById(1L).get().getCategory()).isEqualTo("Électronique");
+        assertThat(snapshot.findById(9L).get().getCategory()).isNull();
+        assertThat(snapshot.findById(3L)).isEmpty();
+        assertThat(snapshot.findVersionById(5L)).contains(new ProductVersion(5L, CREATED.plusDays(2)));
+
+        // Comparaison sans casse comme en base, tri par prix
+        assertThat(snapshot.findByCategory("ELECTRONICS", null))
+                .extracting(ProductResponse::getId).containsExactly(5L, 2L);
+        assertThat(snapshot.findByCategory("Electronics", ProductFields.parse("name")))
+                .extracting(ProductResponse::getId, ProductResponse::getName, ProductResponse::getPrice)
+                .containsExactly(tuple(5L, "Headphones", null), tuple(2L, "Laptop", null));
+        assertThat(snapshot.findByCategory("Toys", null)).isEmpty();
+
+        assertThat(snapshot.findByPriceBetween(new BigDecimal("12.50"), new BigDecimal("59")))
+                .extracting(ProductResponse::getId).containsExactly(1L, 9L, 5L);
+        assertThat(snapshot.findByPriceBetween(new BigDecimal("12.501"), new BigDecimal("58.999")))
+                .extracting(ProductResponse::getId).containsExactly(9L);
+
+        assertThat(snapshot.version(null)).contains(new CatalogVersion(4L, CREATED.plusDays(3)));
+        assertThat(snapshot.version("electronics")).contains(new CatalogVersion(2L, CREATED.plusDays(3)));
+        assertThat(snapshot.version("Toys")).isEmpty();
+    }
+
+    @Test
+    void pagesSearchLowStockAndFacets_AreServedFromSnapshot() throws IOException {
+        Path file = directory.resolve("products.snapshot");
+        ProductSnapshot.write(List.of(
+                product(1L, "Novel", "Books", "12.50", CREATED),
+                product(2L, "Laptop", "Electronics", "999.99", CREATED),
+                product(3L, "Atlas", "Books", "12.50", CREATED),
+                product(4L, "Cookbook", "Books", "8.00", CREATED),
+                product(5L, "Headphones", "Electronics", "59.00", CREATED)).iterator(), file);
+        ProductSnapshot snapshot = ProductSnapshot.open(file);
+
+        assertThat(snapshot.findPage(null, 2, null)).extracting(ProductResponse::getId).containsExactly(1L, 2L);
+        assertThat(snapshot.findPage(2L, 2, null)).extracting(ProductResponse::getId).containsExactly(3L, 4L);
+        assertThat(snapshot.findPage(4L, 2, null)).extracting(ProductResponse::getId).containsExactly(5L);
+        assertThat(snapshot.findPage(5L, 2, null)).isEmpty();
+
+        // Ordre (prix, id) : les deux livres à 12.50 sont départagés par l'id
+        assertThat(snapshot.findCategoryPage("Books", null, null, 2, null))
+                .extracting(ProductResponse::getId).containsExactly(4L, 1L);
+        assertThat(snapshot.findCategoryPage("Books", new BigDecimal("12.50"), 1L, 2, null))
+                .extracting(ProductResponse::getId).containsExactly(3L);
+        assertThat(snapshot.findCategoryPage("Toys", null, null, 2, null)).isEmpty();
+
+        // Quantités : id * 3
+        assertThat(snapshot.findBelowQuantity(10)).extracting(ProductResponse::getId).containsExactly(1L, 2L, 3L);
+        assertThat(snapshot.search("BOOK", 10, null)).extracting(ProductResponse::getId).containsExactly(4L);
+        assertThat(snapshot.search("description", 2, ProductFields.parse("name")))
+                .extracting(ProductResponse::getId, ProductResponse::getPrice)
+                .containsExactly(tuple(1L, null), tuple(2L, null));
+
+        assertThat(CategoryFacetRollups.aggregate(snapshot.categoryPriceBuckets()))
+                .extracting(CategoryFacet::getCategory, CategoryFacet::getProductCount, CategoryFacet::getTotalQuantity)
+                .containsExactlyInAnyOrder(tuple("Books", 3L, 24L), tuple("Electronics", 2L, 21L));
+
+        List<Long> exported = new ArrayList<>();
+        snapshot.iterator().forEachRemaining(product -> exported.add(product.getId()));
+        assertThat(exported).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void readOnlyFilter_RejectsWritesAndReadsTheSnapshotCannotServe() throws Exception {
+        ReadOnlyModeFilter filter = new ReadOnlyModeFilter(new ObjectMapper().findAndRegisterModules());
+
+        MockHttpServletResponse write = filter(filter, "POST", "/api/v1/products");
+        MockHttpServletResponse changes = filter(filter, "GET", "/api/v1/products/changes");
+        MockHttpServletResponse importJob = filter(filter, "GET", "/api/v1/products/imports/42");
+        MockHttpServletResponse read = filter(filter, "GET", "/api/v1/products/low-stock");
+
+        assertThat(write.getStatus()).isEqualTo(405);
+        assertThat(changes.getStatus()).isEqualTo(404);
+        assertThat(importJob.getStatus()).isEqualTo(404);
+        assertThat(read.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void open_RejectsCorruptedFile() throws IOException {
+        Path file = directory.resolve("products.snapshot");
+        ProductSnapshot.write(List.of(product(1L, "Novel", "Books", "12.50", CREATED)).iterator(), file);
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - 1] ^= 1;
+        Files.write(file, content);
+
+        assertThatThrownBy(() -> ProductSnapshot.open(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void reload_SwapsToNewFileAndKeepsPreviousOnCorruption() throws IOException {
+        Path file = directory.resolve("products.snapshot");
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+        ProductSnapshotStore store = new ProductSnapshotStore(file, true, cacheManager, new SimpleMeterRegistry());
+        assertThat(store.current().size()).isZero();
+
+        ProductSnapshot.write(List.of(product(1L, "Novel", "Books", "12.50", CREATED)).iterator(), file);
+        assertThat(store.reload()).isTrue();
+        assertThat(store.current().findById(1L)).isPresent();
+        assertThat(store.reload()).isFalse();
+
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put(1L, product(1L, "Novel", "Books", "12.50", CREATED));
+        ProductSnapshot.write(List.of(
+                product(1L, "Novel", "Books", "10.00", CREATED.plusDays(1)),
+                product(2L, "Atlas", "Books", "30.00", CREATED)).iterator(), file);
+        assertThat(store.reload()).isTrue();
+        assertThat(store.current().findById(1L).get().getPrice()).isEqualByComparingTo("10.00");
+        assertThat(store.current().size()).isEqualTo(2);
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(1L)).isNull();
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThat(store.reload()).isFalse();
+        assertThat(store.current().size()).isEqualTo(2);
+    }
+
+    private static MockHttpServletResponse filter(ReadOnlyModeFilter filter, String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, new MockFilterChain());
+        return response;
+    }
+
+    private static ProductResponse product(Long id, String name, String category, String price, LocalDateTime updatedAt) {
+        return ProductResponse.builder()
+                .id(id)
+                .name(name)
+                .description(name + " description")
+                .price(new BigDecimal(price))
+                .quantity(id.intValue() * 3)
+                .category(category)
+                .createdAt(CREATED)
+                .updatedAt(updatedAt)
+                .version(id)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.product_management;
+
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.dto.StockReservationItem;
+import com.example.product_management.exception.ValidationException;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductService;
+import com.example.product_management.service.ProductStockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Stress test : nombreux threads concurrents sur la même ligne, aucune mise à jour ne doit être perdue
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ProductStockConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentIncrementsAndDecrements_NoLostUpdates() throws Exception {
+        ProductResponse product = createProduct("Concurrent Stock Product", 5000);
+        int opsPerThread = 50;
+
+        runConcurrently(THREADS, opsPerThread, (thread, op) -> {
+            if (thread % 2 == 0) {
+                productStockService.increaseStock(product.getId(), 3);
+            } else {
+                productStockService.decreaseStock(product.getId(), 1);
+            }
+        });
+
+        int increments = (THREADS / 2) * opsPerThread * 3;
+        int decrements = (THREADS / 2) * opsPerThread;
+        assertThat(productRepository.findQuantityById(product.getId()))
+                .contains(5000 + increments - decrements);
+    }
+
+    @Test
+    void concurrentReservations_NeverOversell() throws Exception {
+        ProductResponse product = createProduct("Scarce Stock Product", 100);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, 5, (thread, op) -> {
+            try {
+                productStockService.reserveStock(List.of(new StockReservationItem(product.getId(), 1)));
+                reserved.incrementAndGet();
+            } catch (ValidationException ex) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(THREADS * 5 - 100);
+        assertThat(productRepository.findQuantityById(product.getId())).contains(0);
+    }
+
+    @Test
+    void increaseStock_RespectsUpperBound() throws Exception {
+        ProductResponse product = createProduct("Nearly Full Product", 9990);
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, 1, (thread, op) -> {
+            try {
+                productStockService.increaseStock(product.getId(), 1);
+            } catch (ValidationException ex) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(rejected.get()).isEqualTo(THREADS - 10);
+        assertThat(productRepository.findQuantityById(product.getId())).contains(10000);
+    }
+
+    @Test
+    void applyDeltas_CountsClampedUnitsPerBound() {
+        ProductResponse low = createProduct("Clamped Low Product", 5);
+        ProductResponse high = createProduct("Clamped High Product", 9995);
+        double lowerBefore = clamped("lower");
+        double upperBefore = clamped("upper");
+
+        productStockService.applyDeltas(Map.of(low.getId(), -8L, high.getId(), 20L), UUID.randomUUID().toString(), 1);
+
+        assertThat(productRepository.findQuantityById(low.getId())).contains(0);
+        assertThat(productRepository.findQuantityById(high.getId())).contains(10000);
+        assertThat(clamped("lower") - lowerBefore).isEqualTo(3);
+        assertThat(clamped("upper") - upperBefore).isEqualTo(15);
+    }
+
+    private double clamped(String bound) {
+        return meterRegistry.counter("product.stock.write_behind.clamped", "bound", bound).count();
+    }
+
+    private ProductResponse createProduct(String name, int quantity) {
+        return productService.createProduct(ProductRequest.builder()
+                .name(name)
+                .description("Product used by the stock stress test")
+                .price(new BigDecimal("9.99"))
+                .quantity(quantity)
+                .category("Stress")
+                .build());
+    }
+
+    private interface Operation {
+        void run(int thread, int op);
+    }
+
+    private static void runConcurrently(int threads, int opsPerThread, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int op = 0; op < opsPerThread; op++) {
+                        operation.run(thread, op);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.product_management;
+
+import com.example.product_management.observability.QueryCountFilter;
+import com.example.product_management.observability.QueryCountInspector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountFilterTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCountFilter filter = new QueryCountFilter(meterRegistry, 5);
+    private final QueryCountInspector inspector = new QueryCountInspector();
+    
+    @Test
+    void recordsStatementsPerRequest() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select p from products p where p.category=?");
+            inspector.inspect("select count(*) from products");
+        });
+        
+        assertThat(meterRegistry.get("product.http.queries").tag("uri", "/api/v1/products/category/{category}")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.find("product.http.n_plus_one").counter()).isNull();
+    }
+    
+    @Test
+    void flagsRepeatedStatementAsNPlusOne() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < 6; i++) {
+                inspector.inspect("select p from products p where p.id=?");
+            }
+        });
+        
+        assertThat(meterRegistry.get("product.http.n_plus_one").counter().count()).isEqualTo(1);
+    }
+    
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        inspector.inspect("select 1");
+        
+        assertThat(meterRegistry.find("product.http.queries").summary()).isNull();
+    }
+    
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/category/Books");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/products/category/{category}");
+        return request;
+    }
+}
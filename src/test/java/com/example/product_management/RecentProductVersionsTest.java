@@ -0,0 +1,33 @@
+package com.example.product_management;
+
+import com.example.product_management.service.RecentProductVersions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentProductVersionsTest {
+
+    private long now;
+
+    @Test
+    void get_ForgetsVersionsOlderThanHorizon() {
+        RecentProductVersions versions = new RecentProductVersions(Duration.ofMinutes(5), () -> now);
+        versions.put(1L, 3);
+        now += TimeUnit.MINUTES.toNanos(3);
+        versions.put(2L, RecentProductVersions.DELETED);
+        // Nouvelle version du produit 1 : son horizon repart de zéro
+        versions.put(1L, 4);
+
+        now += TimeUnit.MINUTES.toNanos(4);
+        assertThat(versions.get(1L)).isEqualTo(4);
+        assertThat(versions.isDeleted(2L)).isTrue();
+
+        now += TimeUnit.MINUTES.toNanos(2);
+        assertThat(versions.get(1L)).isNull();
+        assertThat(versions.isDeleted(2L)).isFalse();
+        assertThat(versions.size()).isZero();
+    }
+}
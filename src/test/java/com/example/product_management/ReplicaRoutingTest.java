@@ -0,0 +1,168 @@
+package com.example.product_management;
+
+import com.example.product_management.datasource.GatedDataSource;
+import com.example.product_management.datasource.ReadYourWrites;
+import com.example.product_management.datasource.ReplicaLagMonitor;
+import com.example.product_management.datasource.ReplicaPool;
+import com.example.product_management.exception.ServiceOverloadedException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Deux bases H2 embarquées : la « primaire » et un « réplica » dont la réplication est simulée à la main
+class ReplicaRoutingTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaPool replicaPool;
+    private ReplicaLagMonitor lagMonitor;
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+
+        replicaPool = new ReplicaPool(primary, List.of(new ReplicaPool.Replica("replica-1", replica)),
+                ReplicaPool.Selection.ROUND_ROBIN, 2000, new SimpleMeterRegistry());
+        lagMonitor = new ReplicaLagMonitor(primary, replicaPool.getReplicas(), clock::get);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaPool);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaPool.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactions_GoToPrimaryUntilReplicaLagIsKnown() {
+        String origin = readOnly.execute(status -> origin());
+
+        assertThat(origin).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactions_GoToReplicaOnceCaughtUp() {
+        beatAndReplicate();
+        beatAndReplicate();
+
+        String readOnlyOrigin = readOnly.execute(status -> origin());
+        String readWriteOrigin = readWrite.execute(status -> origin());
+
+        assertThat(readOnlyOrigin).isEqualTo("replica");
+        assertThat(readWriteOrigin).isEqualTo("primary");
+    }
+
+    @Test
+    void pinnedThread_ReadsFromPrimary() {
+        beatAndReplicate();
+        beatAndReplicate();
+
+        String pinnedOrigin = ReadYourWrites.onPrimary(() -> readOnly.execute(status -> origin()));
+        String unpinnedOrigin = readOnly.execute(status -> origin());
+
+        assertThat(pinnedOrigin).isEqualTo("primary");
+        assertThat(unpinnedOrigin).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplica_IsSkipped() {
+        beatAndReplicate();
+        beatAndReplicate();
+
+        // La réplication s'arrête : chaque passage creuse l'écart d'une seconde
+        for (int i = 0; i < 4; i++) {
+            clock.addAndGet(1000);
+            lagMonitor.check();
+        }
+
+        String origin = readOnly.execute(status -> origin());
+
+        assertThat(replicaPool.getReplicas().get(0).lagMs()).isGreaterThan(2000);
+        assertThat(origin).isEqualTo("primary");
+    }
+
+    @Test
+    void gatedReplica_RejectsReadsBeyondItsPermits() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GatedDataSource gated = new GatedDataSource("replica-1", replica, 1, 50, meterRegistry);
+        ReplicaPool gatedPool = new ReplicaPool(primary, List.of(new ReplicaPool.Replica("replica-1", gated)),
+                ReplicaPool.Selection.LEAST_CONNECTIONS, 2000, meterRegistry);
+        ReplicaLagMonitor gatedMonitor = new ReplicaLagMonitor(primary, gatedPool.getReplicas(), clock::get);
+        for (int i = 0; i < 2; i++) {
+            clock.addAndGet(1000);
+            gatedMonitor.check();
+            replicateHeartbeat();
+        }
+
+        try (Connection held = gatedPool.getConnection()) {
+            assertThat(held.isValid(1)).isTrue();
+            // Le seul permis du réplica est pris : la lecture suivante est refusée, pas envoyée à la primaire
+            assertThatThrownBy(gatedPool::getConnection).isInstanceOf(ServiceOverloadedException.class);
+        }
+        assertThat(meterRegistry.get("product.jdbc_gate.available").tag("pool", "replica-1").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void explicitCredentials_AreNotSupported() {
+        assertThatThrownBy(() -> replicaPool.getConnection("sa", ""))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private String origin() {
+        return jdbcTemplate.queryForObject("SELECT origin FROM routing_origin", String.class);
+    }
+
+    // Mesure puis écrit un battement, recopié aussitôt sur le réplica (réplication instantanée)
+    private void beatAndReplicate() {
+        clock.addAndGet(1000);
+        lagMonitor.check();
+        replicateHeartbeat();
+    }
+
+    private void replicateHeartbeat() {
+        Long beat = new JdbcTemplate(primary).queryForObject(
+                "SELECT beat_millis FROM replication_heartbeat WHERE id = 1", Long.class);
+        new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1", beat);
+    }
+
+    private static HikariDataSource database(String origin) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + origin + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(4);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        jdbc.update("INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0)");
+        jdbc.execute("CREATE TABLE routing_origin (origin VARCHAR(16))");
+        jdbc.update("INSERT INTO routing_origin (origin) VALUES (?)", origin);
+        return dataSource;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.product_management;
+
+import com.example.product_management.config.SchemaIndexVerifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Migrations Flyway sur un vrai MySQL : schéma validé par Hibernate, index présents et utilisés
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class SchemaMigrationTest {
+    
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("product.stock.write-behind.journal-dir", () -> "target/stock-journal-mysql");
+    }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private SchemaIndexVerifier schemaIndexVerifier;
+    
+    @Test
+    void migrationsCreateExpectedIndexes() throws Exception {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT DISTINCT index_name FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'products'", String.class);
+        
+        assertThat(indexes).contains("idx_products_category_price", "idx_products_quantity", "idx_products_price");
+        schemaIndexVerifier.run(null);
+    }
+    
+    @Test
+    void lowStockQuery_UsesQuantityIndex() {
+        Map<String, Object> plan = jdbcTemplate.queryForMap(
+                "EXPLAIN SELECT * FROM products WHERE quantity < 10");
+        
+        assertThat(String.valueOf(plan.get("possible_keys"))).contains("idx_products_quantity");
+    }
+    
+    @Test
+    void productSequence_StartsAboveExistingIds() {
+        Long nextVal = jdbcTemplate.queryForObject("SELECT next_val FROM product_seq", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM products", Long.class);
+        
+        // Allocation pooled : les ids distribués vont jusqu'à 49 sous la valeur lue
+        assertThat(nextVal).isGreaterThanOrEqualTo(maxId + 50);
+    }
+    
+    @Test
+    void verifierFailsWhenIndexIsMissing() {
+        jdbcTemplate.execute("DROP INDEX idx_products_quantity ON products");
+        try {
+            assertThatThrownBy(() -> schemaIndexVerifier.run(null))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("idx_products_quantity");
+        } finally {
+            jdbcTemplate.execute("CREATE INDEX idx_products_quantity ON products (quantity)");
+        }
+    }
+}
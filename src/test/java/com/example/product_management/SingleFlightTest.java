@@ -0,0 +1,164 @@
+package com.example.product_management;
+
+import com.example.product_management.exception.ResourceNotFoundException;
+import com.example.product_management.exception.ServiceOverloadedException;
+import com.example.product_management.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallers_ShareOneLoad() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = callConcurrently(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            awaitFollowers();
+            return "product-1";
+        }));
+
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("product-1");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.coalescingRatio()).isEqualTo((CALLERS - 1) / (double) CALLERS);
+        assertThat(meterRegistry.get("product.single_flight.calls").tag("role", "coalesced")
+                .functionCounter().count()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failure_IsPropagatedToEveryCaller() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+
+        List<Future<String>> results = callConcurrently(() -> singleFlight.execute(2L, () -> {
+            awaitFollowers();
+            throw new ResourceNotFoundException("Product not found with id: 2");
+        }));
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
+    @Test
+    void completedLoad_IsNotReused() {
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute(3L, loads::incrementAndGet);
+
+        assertThat(singleFlight.execute(3L, loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void invalidate_LaterCallersStartANewLoad() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> beforeWrite = executor.submit(() -> singleFlight.execute(5L, () -> {
+                started.countDown();
+                await(release);
+                return "before write";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Écriture validée pendant le chargement : l'appel suivant ne rejoint pas la lecture périmée
+            singleFlight.invalidate(5L);
+            assertThat(singleFlight.execute(5L, () -> "after write")).isEqualTo("after write");
+
+            release.countDown();
+            assertThat(beforeWrite.get(5, TimeUnit.SECONDS)).isEqualTo("before write");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void follower_GivesUpAfterMaxWait() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 50, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(4L, () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> singleFlight.execute(4L, () -> "unused"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+            assertThat(meterRegistry.get("product.single_flight.timeouts").counter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Chargement du meneur : attend que les CALLERS - 1 autres appels aient rejoint le chargement en cours
+    private void awaitFollowers() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("product.single_flight.calls").tag("role", "coalesced")
+                .functionCounter().count() < CALLERS - 1) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Followers did not join the load");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Lance CALLERS appels ; le chargement du meneur ne se termine qu'une fois les suiveurs en attente
+    private static <T> List<Future<T>> callConcurrently(Callable<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(call));
+            }
+            for (Future<T> future : futures) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException ignored) {
+                    // vérifié par l'appelant
+                }
+            }
+            return futures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
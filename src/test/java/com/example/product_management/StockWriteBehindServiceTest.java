@@ -0,0 +1,146 @@
+package com.example.product_management;
+
+import com.example.product_management.service.ProductStockService;
+import com.example.product_management.service.StockWriteBehindService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockWriteBehindServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ProductStockService productStockService;
+    // Base simulée : deltas appliqués par produit et dernier segment validé par journal
+    private final Map<Long, Long> applied = new HashMap<>();
+    private final Map<String, Long> watermarks = new HashMap<>();
+    private boolean databaseDown;
+
+    @BeforeEach
+    void setUp() {
+        productStockService = mock(ProductStockService.class);
+        when(productStockService.findFlushedJournalSegment(anyString()))
+                .thenAnswer(invocation -> watermarks.getOrDefault(invocation.<String>getArgument(0), 0L));
+        doAnswer(invocation -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            invocation.<Map<Long, Long>>getArgument(0).forEach((id, delta) -> applied.merge(id, delta, Long::sum));
+            watermarks.put(invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(productStockService).applyDeltas(anyMap(), anyString(), anyLong());
+    }
+
+    @Test
+    void flush_AppliesOneCoalescedDeltaPerProductAndDeletesSegment() throws IOException {
+        StockWriteBehindService service = start(directory);
+        service.recordDelta(1L, 3);
+        service.recordDelta(1L, -1);
+        service.recordDelta(2L, 5);
+
+        service.flush();
+
+        assertThat(applied).isEqualTo(Map.of(1L, 2L, 2L, 5L));
+        assertThat(watermarks).containsValue(1L);
+        // Seul le segment ouvert par la rotation reste sur disque
+        assertThat(segments(directory)).hasSize(1);
+
+        service.flush();
+        verify(productStockService, times(1)).applyDeltas(anyMap(), anyString(), anyLong());
+    }
+
+    @Test
+    void restartAfterCrash_ReplaysUnflushedSegments() throws IOException {
+        StockWriteBehindService crashed = start(directory);
+        crashed.recordDelta(1L, 4);
+        crashed.recordDelta(3L, -2);
+
+        StockWriteBehindService restarted = start(directory);
+        restarted.flush();
+
+        assertThat(applied).isEqualTo(Map.of(1L, 4L, 3L, -2L));
+    }
+
+    @Test
+    void restartAfterCommitBeforeSegmentDeletion_DoesNotReplayAppliedDeltas() throws IOException {
+        Path snapshot = directory.resolve("at-commit");
+        StockWriteBehindService service = start(directory.resolve("journal"));
+        // Copie du journal au moment de la validation : l'état laissé par un arrêt avant la suppression
+        doAnswer(invocation -> {
+            if (!Files.exists(snapshot)) {
+                copy(directory.resolve("journal"), snapshot);
+            }
+            watermarks.put(invocation.getArgument(1), invocation.getArgument(2));
+            invocation.<Map<Long, Long>>getArgument(0).forEach((id, delta) -> applied.merge(id, delta, Long::sum));
+            return null;
+        }).when(productStockService).applyDeltas(anyMap(), anyString(), anyLong());
+        service.recordDelta(1L, -3);
+        service.flush();
+        assertThat(segments(snapshot)).hasSize(2);
+
+        StockWriteBehindService restarted = start(snapshot);
+        restarted.recordDelta(2L, 1);
+        restarted.flush();
+
+        assertThat(applied).isEqualTo(Map.of(1L, -3L, 2L, 1L));
+        assertThat(segments(snapshot)).hasSize(1);
+    }
+
+    @Test
+    void failedFlush_KeepsDeltasAndSegmentsForRetry() throws IOException {
+        StockWriteBehindService service = start(directory);
+        service.recordDelta(1L, 2);
+        databaseDown = true;
+
+        service.flush();
+        assertThat(applied).isEmpty();
+        // Segment conservé et non marqué appliqué : un redémarrage à ce stade rejouerait le delta
+        assertThat(segments(directory)).hasSize(2);
+        assertThat(watermarks).isEmpty();
+
+        databaseDown = false;
+        service.recordDelta(1L, 1);
+        service.flush();
+
+        assertThat(applied).isEqualTo(Map.of(1L, 3L));
+        assertThat(watermarks).containsValue(2L);
+        assertThat(segments(directory)).hasSize(1);
+    }
+
+    private StockWriteBehindService start(Path journal) {
+        StockWriteBehindService service = new StockWriteBehindService(productStockService, new SimpleMeterRegistry(), journal, false);
+        service.start();
+        return service;
+    }
+
+    private static List<Path> segments(Path journal) throws IOException {
+        try (Stream<Path> files = Files.list(journal)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.dto.ApiResponse;
+import com.example.product_management.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sérialisation JSON d'une réponse liste, avec l'ObjectMapper configuré comme celui de Spring Boot
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+    
+    @Param({"100", "1000", "10000"})
+    public int size;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<ProductResponse>> response;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<ProductResponse> products = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            products.add(ProductResponse.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .description("Description of product " + i + " with a realistic amount of marketing text")
+                    .price(new BigDecimal("19.99").add(BigDecimal.valueOf(i)))
+                    .quantity(i % 10000)
+                    .category("Category " + (i % 20))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        response = ApiResponse.success(products, "Products retrieved successfully");
+    }
+    
+    @Benchmark
+    public byte[] serializeProductList() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.ProductManagementApplication;
+import com.example.product_management.service.ProductBulkService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test de charge du délestage : base volontairement lente (chaque connexion est gardée
+ * {@code load.db-delay-ms} ms de plus, pool Hikari de {@code load.db-pool} connexions) et
+ * {@code load.clients} clients sans temps de pause, soit bien plus que la base ne peut servir.
+ * L'application est lancée deux fois, limiteur désactivé puis activé ; sont affichés le débit,
+ * les latences p50/p99 des réponses servies, la p99 de toutes les réponses et le nombre de 503.
+ * <p>
+ * Sans limiteur, les requêtes attendent une connexion dans Tomcat puis dans Hikari et la p99
+ * croît avec le nombre de clients ; avec, elle reste proche de la latence de la base et
+ * l'excédent reçoit un 503 immédiat. Les clients ignorent volontairement {@code Retry-After} et
+ * réessaient après {@code load.reject-pause-ms} ms. Les 409 (stock épuisé) comptent comme servies.
+ * <p>
+ * Lancement : {@code mvn -Pbenchmark test-compile exec:exec@overload-test}.
+ */
+public class OverloadLoadRunner {
+
+    private static final int CATEGORIES = 20;
+    // Une requête sur dix est une écriture (variation de stock)
+    private static final int WRITE_RATIO = 10;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 400);
+        int durationSeconds = Integer.getInteger("load.duration", 30);
+        int warmupSeconds = Integer.getInteger("load.warmup", 10);
+        long dbDelayMs = Long.getLong("load.db-delay-ms", 20);
+        int dbPool = Integer.getInteger("load.db-pool", 10);
+        long rejectPauseMs = Long.getLong("load.reject-pause-ms", 50);
+
+        List<Result> results = new ArrayList<>();
+        for (boolean limiter : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(limiter, dbDelayMs, dbPool)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                long firstId = ThreadModeLoadRunner.seed(context.getBean(ProductBulkService.class));
+                String mode = limiter ? "limiter" : "no-limit";
+
+                // Laisse au limiteur le temps de converger
+                run(mode, port, firstId, clients, warmupSeconds, rejectPauseMs);
+                results.add(run(mode, port, firstId, clients, durationSeconds, rejectPauseMs));
+            }
+        }
+
+        System.out.printf("%n%d clients, database delay %d ms, %d connections%n", clients, dbDelayMs, dbPool);
+        System.out.printf("%-10s %10s %10s %10s %12s %10s %10s%n",
+                "mode", "ok req/s", "p50 ms", "p99 ms", "p99 all ms", "503", "errors");
+        results.forEach(result -> System.out.printf("%-10s %10.0f %10.2f %10.2f %12.2f %10d %10d%n",
+                result.mode(), result.throughput(), result.p50Millis(), result.p99Millis(),
+                result.p99AllMillis(), result.rejected(), result.errors()));
+    }
+
+    private static ConfigurableApplicationContext start(boolean limiter, long dbDelayMs, int dbPool) {
+        return new SpringApplicationBuilder(ProductManagementApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "spring.datasource.hikari.maximum-pool-size=" + dbPool,
+                        "product.limiter.enabled=" + limiter)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource)
+                                ? new SlowDataSource(dataSource, dbDelayMs)
+                                : bean;
+                    }
+                }))
+                .run();
+    }
+
+    private static Result run(String mode, int port, long firstId, int clients, int durationSeconds,
+                              long rejectPauseMs) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String baseUrl = "http://localhost:" + port + "/api/v1/products";
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+
+        AtomicLong errors = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<long[]> served = new ArrayList<>();
+        List<long[]> all = new ArrayList<>();
+
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] servedLatencies = new long[1 << 16];
+                long[] allLatencies = new long[1 << 16];
+                served.add(servedLatencies);
+                all.add(allLatencies);
+                executor.submit(() -> {
+                    int servedCount = 0;
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        int status;
+                        try {
+                            status = httpClient.send(randomRequest(baseUrl, firstId),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception ex) {
+                            status = -1;
+                        }
+                        long latency = System.nanoTime() - begin;
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                            pause(rejectPauseMs);
+                        } else if (status < 0 || status >= 500) {
+                            errors.incrementAndGet();
+                        } else if (servedCount < servedLatencies.length - 1) {
+                            servedLatencies[++servedCount] = latency;
+                        }
+                        if (count < allLatencies.length - 1) {
+                            allLatencies[++count] = latency;
+                        }
+                    }
+                    // La première case porte le nombre de mesures du client
+                    servedLatencies[0] = servedCount;
+                    allLatencies[0] = count;
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] servedSorted = sorted(served);
+        long[] allSorted = sorted(all);
+        return new Result(mode, servedSorted.length / elapsedSeconds,
+                ThreadModeLoadRunner.percentile(servedSorted, 0.50), ThreadModeLoadRunner.percentile(servedSorted, 0.99),
+                ThreadModeLoadRunner.percentile(allSorted, 0.99), rejected.get(), errors.get());
+    }
+
+    // Lectures par id (souvent en cache), pages de catégorie et du catalogue, variations de stock
+    private static HttpRequest randomRequest(String baseUrl, long firstId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = random.nextLong(firstId, firstId + ThreadModeLoadRunner.CATALOG_SIZE);
+        if (random.nextInt(WRITE_RATIO) == 0) {
+            String direction = random.nextBoolean() ? "increment" : "decrement";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/stock/" + direction))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1}"))
+                    .build();
+        }
+        String path = switch (random.nextInt(3)) {
+            case 0 -> baseUrl + "/" + id;
+            case 1 -> baseUrl + "/category/Category%20" + random.nextInt(CATEGORIES);
+            default -> baseUrl + "?size=20&category=Category%20" + random.nextInt(CATEGORIES);
+        };
+        return HttpRequest.newBuilder(URI.create(path))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long[] sorted(List<long[]> latencies) {
+        return latencies.stream()
+                .flatMapToLong(values -> Arrays.stream(values, 1, (int) values[0] + 1))
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Chaque connexion n'est remise à l'appelant qu'après {@code delayMs}, déjà retirée du pool :
+     * une base saturée vue de l'application.
+     */
+    private static final class SlowDataSource extends DelegatingDataSource {
+
+        private final long delayMs;
+
+        SlowDataSource(DataSource target, long delayMs) {
+            super(target);
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            pause(delayMs);
+            return connection;
+        }
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis,
+                          double p99AllMillis, long rejected, long errors) {
+    }
+}
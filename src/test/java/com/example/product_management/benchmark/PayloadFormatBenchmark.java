@@ -0,0 +1,106 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.dto.ApiResponse;
+import com.example.product_management.dto.ProductResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encodage / décodage d'une réponse liste en JSON, CBOR et Smile, avec les mappers de BinaryFormatConfig.
+// Les tailles (brute et gzip) sont affichées au démarrage de chaque essai.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+    
+    private static final TypeReference<ApiResponse<List<ProductResponse>>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+    
+    @Param({"json", "cbor", "smile"})
+    public String format;
+    
+    @Param({"100", "1000"})
+    public int size;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<ProductResponse>> response;
+    private byte[] encoded;
+    
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json()
+                    .factory(new CBORFactory())
+                    .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json()
+                    .factory(new SmileFactory())
+                    .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        
+        List<ProductResponse> products = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            products.add(ProductResponse.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .description("Description of product " + i + " with a realistic amount of marketing text")
+                    .price(new BigDecimal("19.99").add(BigDecimal.valueOf(i)))
+                    .quantity(i % 10000)
+                    .category("Category " + (i % 20))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        response = ApiResponse.success(products, "Products retrieved successfully");
+        encoded = objectMapper.writeValueAsBytes(response);
+        
+        System.out.printf("%n%s, %d products: %d bytes, %d bytes gzipped%n",
+                format, size, encoded.length, gzip(encoded).length);
+    }
+    
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public ApiResponse<List<ProductResponse>> decode() throws IOException {
+        return objectMapper.readValue(encoded, RESPONSE_TYPE);
+    }
+    
+    // Coût ajouté par la compression de server.compression
+    @Benchmark
+    public byte[] encodeAndGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(response));
+    }
+    
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.mapper.ProductMapper;
+import com.example.product_management.model.Product;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Compare le mapping réflexif ModelMapper au ProductMapper écrit à la main (temps + allocations via le profiler GC)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+    
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private Product product;
+    private ProductRequest request;
+    
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        productMapper = new ProductMapper();
+        
+        request = ProductRequest.builder()
+                .name("Benchmark Product")
+                .description("Product used by the mapping benchmark")
+                .price(new BigDecimal("149.90"))
+                .quantity(42)
+                .category("Electronics")
+                .build();
+        
+        product = Product.builder()
+                .id(1L)
+                .name("Benchmark Product")
+                .description("Product used by the mapping benchmark")
+                .price(new BigDecimal("149.90"))
+                .quantity(42)
+                .category("Electronics")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+    
+    @Benchmark
+    public ProductResponse modelMapperToResponse() {
+        return modelMapper.map(product, ProductResponse.class);
+    }
+    
+    @Benchmark
+    public ProductResponse productMapperToResponse() {
+        return productMapper.toResponse(product);
+    }
+    
+    @Benchmark
+    public Product modelMapperToEntity() {
+        return modelMapper.map(request, Product.class);
+    }
+    
+    @Benchmark
+    public Product productMapperToEntity() {
+        return productMapper.toEntity(request);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.ProductManagementApplication;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.dto.ProductResponse;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductBulkService;
+import com.example.product_management.service.ProductPriceIndex;
+import com.example.product_management.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Fourchette de prix : BETWEEN en base (profil "test", H2) contre l'index des prix en mémoire.
+// Les prix vont de 1.00 à 50.99, une fourchette de 0.50 sélectionne environ 1 % du catalogue.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPriceRangeBenchmark {
+
+    private static final int PRICE_POINTS = 5000;
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    @Param({"50"})
+    public int rangeWidthCents;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductPriceIndex productPriceIndex;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        productPriceIndex = context.getBean(ProductPriceIndex.class);
+        productService = context.getBean(ProductService.class);
+        ProductBulkService bulkService = context.getBean(ProductBulkService.class);
+
+        List<ProductRequest> batch = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            batch.add(ProductRequest.builder()
+                    .name("Benchmark product " + i)
+                    .description("Benchmark description " + i)
+                    .price(BigDecimal.valueOf(100 + i % PRICE_POINTS, 2))
+                    .quantity(i % 100)
+                    .category("Category " + (i % 20))
+                    .build());
+            if (batch.size() == 1000) {
+                bulkService.createProducts(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            bulkService.createProducts(batch);
+        }
+
+        // Index alimenté par les événements des insertions, cache rempli comme après un temps de service
+        for (Product product : productRepository.findAll()) {
+            productService.getProductById(product.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> repositoryFindByPriceBetween() {
+        BigDecimal min = randomMin();
+        return productRepository.findByPriceBetween(min, max(min));
+    }
+
+    @Benchmark
+    public long[] priceIndexIds() {
+        BigDecimal min = randomMin();
+        return productPriceIndex.findIdsBetween(min, max(min));
+    }
+
+    @Benchmark
+    public List<ProductResponse> serviceGetProductsByPriceRange() {
+        BigDecimal min = randomMin();
+        return productService.getProductsByPriceRange(min, max(min));
+    }
+
+    private BigDecimal randomMin() {
+        return BigDecimal.valueOf(100 + ThreadLocalRandom.current().nextInt(PRICE_POINTS - rangeWidthCents), 2);
+    }
+
+    private BigDecimal max(BigDecimal min) {
+        return min.add(BigDecimal.valueOf(rangeWidthCents, 2));
+    }
+}
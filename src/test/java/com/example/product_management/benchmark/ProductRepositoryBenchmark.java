@@ -0,0 +1,104 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.ProductManagementApplication;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.model.Product;
+import com.example.product_management.repository.ProductRepository;
+import com.example.product_management.service.ProductBulkService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Requêtes du repository contre la base embarquée H2 du profil "test", catalogue pré-rempli
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductRepositoryBenchmark {
+    
+    private static final int CATEGORIES = 20;
+    private static final Pageable PAGE = Pageable.ofSize(20);
+    
+    @Param({"10000"})
+    public int catalogSize;
+    
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private long minId;
+    private long maxId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProductManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        ProductBulkService bulkService = context.getBean(ProductBulkService.class);
+        
+        List<ProductRequest> batch = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            batch.add(ProductRequest.builder()
+                    .name("Benchmark product " + i)
+                    .description("Benchmark description " + i + " for keyword search")
+                    .price(BigDecimal.valueOf(100 + i % 5000, 2))
+                    .quantity(i % 100)
+                    .category("Category " + (i % CATEGORIES))
+                    .build());
+            if (batch.size() == 1000) {
+                bulkService.createProducts(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            bulkService.createProducts(batch);
+        }
+        
+        minId = productRepository.findAllByOrderByIdAsc(Pageable.ofSize(1)).get(0).getId();
+        maxId = minId + catalogSize - 1;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Product findById() {
+        return productRepository.findById(randomId()).orElse(null);
+    }
+    
+    @Benchmark
+    public List<Product> findByCategory() {
+        return productRepository.findByCategory("Category " + ThreadLocalRandom.current().nextInt(CATEGORIES));
+    }
+    
+    @Benchmark
+    public List<Product> findKeysetPage() {
+        return productRepository.findPageAfter(randomId(), PAGE);
+    }
+    
+    @Benchmark
+    public List<Product> findLowStockProducts() {
+        return productRepository.findLowStockProducts(5);
+    }
+    
+    @Benchmark
+    public List<Product> searchProductsSql() {
+        return productRepository.searchProducts("product 42");
+    }
+    
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+    }
+}
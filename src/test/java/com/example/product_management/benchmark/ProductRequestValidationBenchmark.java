@@ -0,0 +1,64 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.dto.ProductRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Coût de la validation Bean Validation d'un ProductRequest (cas valide et cas en erreur)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductRequestValidationBenchmark {
+    
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ProductRequest validRequest;
+    private ProductRequest invalidRequest;
+    
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        
+        validRequest = ProductRequest.builder()
+                .name("Benchmark Product")
+                .description("Product used by the validation benchmark")
+                .price(new BigDecimal("149.90"))
+                .quantity(42)
+                .category("Electronics")
+                .build();
+        
+        invalidRequest = ProductRequest.builder()
+                .name("x")
+                .description("short")
+                .price(new BigDecimal("-1"))
+                .quantity(20000)
+                .category("")
+                .build();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<ProductRequest>> validateValidRequest() {
+        return validator.validate(validRequest);
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<ProductRequest>> validateInvalidRequest() {
+        return validator.validate(invalidRequest);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.product_management.benchmark;
+
+import com.example.product_management.ProductManagementApplication;
+import com.example.product_management.dto.ProductRequest;
+import com.example.product_management.service.ProductBulkService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test de charge comparant les deux modes d'exécution : pool de threads Tomcat classique puis
+ * threads virtuels (avec la barrière JDBC). Chaque mode démarre l'application sur un port
+ * aléatoire, pré-remplit le catalogue, puis {@code load.clients} clients enchaînent des GET
+ * pendant {@code load.duration} secondes. Le débit et les latences p50/p99 sont affichés.
+ * <p>
+ * Lancement : {@code mvn -Pbenchmark test-compile exec:exec@load-test}. Par défaut la base H2 du
+ * profil "test" est utilisée ; pour des chiffres représentatifs, passer {@code -Dspring.datasource.*}
+ * vers une base MySQL.
+ */
+public class ThreadModeLoadRunner {
+    
+    static final int CATALOG_SIZE = 5000;
+    private static final int CATEGORIES = 20;
+    
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 400);
+        int durationSeconds = Integer.getInteger("load.duration", 30);
+        int warmupSeconds = Integer.getInteger("load.warmup", 5);
+        
+        List<Result> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                long firstId = seed(context.getBean(ProductBulkService.class));
+                String mode = virtualThreads ? "virtual" : "platform";
+                
+                run(mode, port, firstId, clients, warmupSeconds);
+                results.add(run(mode, port, firstId, clients, durationSeconds));
+            }
+        }
+        
+        System.out.printf("%n%-10s %10s %10s %10s %10s %10s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors", "503");
+        results.forEach(result -> System.out.printf("%-10s %10.0f %10.2f %10.2f %10d %10d%n",
+                result.mode(), result.throughput(), result.p50Millis(), result.p99Millis(),
+                result.errors(), result.rejected()));
+    }
+    
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(ProductManagementApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads)
+                .run();
+    }
+    
+    static long seed(ProductBulkService bulkService) {
+        long firstId = Long.MAX_VALUE;
+        List<ProductRequest> batch = new ArrayList<>();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            batch.add(ProductRequest.builder()
+                    .name("Load test product " + i)
+                    .description("Load test description " + i)
+                    .price(BigDecimal.valueOf(100 + i % 5000, 2))
+                    .quantity(i % 100)
+                    .category("Category " + (i % CATEGORIES))
+                    .build());
+            if (batch.size() == 1000 || i == CATALOG_SIZE - 1) {
+                firstId = Math.min(firstId, bulkService.createProducts(batch).getResults().get(0).getId());
+                batch = new ArrayList<>();
+            }
+        }
+        return firstId;
+    }
+    
+    private static Result run(String mode, int port, long firstId, int clients, int durationSeconds) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String baseUrl = "http://localhost:" + port + "/api/v1/products";
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        
+        AtomicLong errors = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long[] clientLatencies = new long[1 << 16];
+                latencies.add(clientLatencies);
+                executor.submit(() -> {
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(randomPath(baseUrl, firstId)))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long begin = System.nanoTime();
+                        try {
+                            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                rejected.incrementAndGet();
+                            } else if (status >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        if (count < clientLatencies.length - 1) {
+                            clientLatencies[++count] = System.nanoTime() - begin;
+                        }
+                    }
+                    // La première case porte le nombre de mesures du client
+                    clientLatencies[0] = count;
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        
+        long[] all = latencies.stream()
+                .flatMapToLong(values -> Arrays.stream(values, 1, (int) values[0] + 1))
+                .sorted()
+                .toArray();
+        return new Result(mode, all.length / elapsedSeconds,
+                percentile(all, 0.50), percentile(all, 0.99), errors.get(), rejected.get());
+    }
+    
+    // Mélange de lectures : produit par id, page de catégorie, premières pages du catalogue
+    private static String randomPath(String baseUrl, long firstId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (random.nextInt(3)) {
+            case 0 -> baseUrl + "/" + random.nextLong(firstId, firstId + CATALOG_SIZE);
+            case 1 -> baseUrl + "/category/Category%20" + random.nextInt(CATEGORIES);
+            default -> baseUrl + "?size=20&category=Category%20" + random.nextInt(CATEGORIES);
+        };
+    }
+    
+    static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+    
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis,
+                          long errors, long rejected) {
+    }
+}